@@ -0,0 +1,38 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves every pooled id generator past the ids already present in its table.
+ * Existing rows were created with AUTO_INCREMENT ids, and the pooled optimizer hands out
+ * the block below the stored value, so the seed leaves one full allocation of headroom.
+ * Runs after Hibernate has created id_generators and before the web server accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorSeeder {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PostConstruct
+    public void seed() {
+        for (String segment : IdGenerators.SEGMENTS) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM " + segment, Long.class);
+            long seedValue = (maxId != null ? maxId : 0L) + IdGenerators.ALLOCATION_SIZE + 1;
+            
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdGenerators.TABLE +
+                    " (" + IdGenerators.PK_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)" +
+                    " ON DUPLICATE KEY UPDATE " + IdGenerators.VALUE_COLUMN +
+                    " = GREATEST(" + IdGenerators.VALUE_COLUMN + ", VALUES(" + IdGenerators.VALUE_COLUMN + "))",
+                    segment, seedValue);
+        }
+    }
+}
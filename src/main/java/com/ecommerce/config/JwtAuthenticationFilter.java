@@ -1,6 +1,10 @@
 package com.ecommerce.config;
 
+import com.ecommerce.model.User;
+import com.ecommerce.service.AuthenticatedUser;
+import com.ecommerce.service.SecurityVersionService;
 import com.ecommerce.util.JwtUtil;
+import com.ecommerce.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +30,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private SecurityVersionService securityVersionService;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -34,8 +41,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
 
         // Check if Authorization header exists and starts with Bearer
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,28 +49,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // Extract JWT token
-        jwt = authHeader.substring(7);
+        final String jwt = authHeader.substring(7);
 
         try {
-            // Validate token first, then extract email
-            if (jwtUtil.validateToken(jwt)) {
-                userEmail = jwtUtil.extractEmail(jwt);
-
-                // If email extracted and no existing authentication
-                if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                    // Validate token against user details
-                    if (jwtUtil.isTokenValid(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
+            // One parse checks signature and expiry and yields the claims
+            VerifiedToken token = jwtUtil.verify(jwt);
+
+            // If the token is valid and there is no existing authentication
+            if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = resolvePrincipal(token);
+                if (userDetails == null) {
+                    filterChain.doFilter(request, response);
+                    return;
                 }
+
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Invalid token - just continue without authentication
@@ -74,4 +78,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Tokens carrying identity claims are trusted as-is unless their security version was bumped;
+    // tokens issued before those claims existed still go through the user lookup
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        Long userId = token.getLongClaim(JwtUtil.CLAIM_USER_ID);
+        String role = token.getClaim(JwtUtil.CLAIM_ROLE, String.class);
+        Long securityVersion = token.getLongClaim(JwtUtil.CLAIM_SECURITY_VERSION);
+
+        if (userId == null || role == null || securityVersion == null) {
+            return userDetailsService.loadUserByUsername(token.getSubject());
+        }
+        if (!securityVersionService.isCurrent(userId, securityVersion)) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, token.getSubject(), null, User.Role.valueOf(role), true, false);
+    }
 }
\ No newline at end of file
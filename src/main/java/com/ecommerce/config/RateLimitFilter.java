@@ -1,90 +1,299 @@
 package com.ecommerce.config;
 
-import com.ecommerce.dto.ErrorResponse;
+import com.ecommerce.service.DistributedRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-client rate limits keyed by client IP and the matched route pattern.
+ *
+ * Keys use the controller mapping a request resolves to (/api/products/{id}), not the raw URI, so
+ * the number of buckets per client is bounded by the number of routes; unmapped paths share one
+ * bucket. Buckets live in striped, access-ordered maps bounded by app.rate-limit.max-keys. A bucket
+ * left idle for its refill period is full again, so it is dropped after that long and recreated on
+ * the next request. Rejections write a body serialized once per route, plus a Retry-After header.
+ *
+ * With app.rate-limit.distributed.enabled the limits are counted across the cluster instead
+ * (DistributedRateLimiter); while the shared store is failing, the local buckets take over.
+ */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
-    
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
-    
+
+    private static final int STRIPES = 16;
+
+    // Shared key for requests that match no controller mapping
+    private static final String UNMAPPED = "*";
+
+    private static final Set<String> LOGIN_PATTERNS = Set.of("/api/auth/login", "/api/auth/signup");
+    private static final Set<String> PASSWORD_RESET_PATTERNS = Set.of("/api/auth/forgot-password", "/api/auth/reset-password");
+
+    // SPECIFICITY_COMPARATOR ties distinct patterns of equal score; the pattern string breaks the tie
+    private static final Comparator<PathPattern> ROUTE_ORDER =
+            PathPattern.SPECIFICITY_COMPARATOR.thenComparing(PathPattern::getPatternString);
+
+    @Value("${app.rate-limit.login-per-minute:5}")
+    private int loginPerMinute;
+
+    @Value("${app.rate-limit.password-reset-per-hour:3}")
+    private int passwordResetPerHour;
+
+    @Value("${app.rate-limit.general-per-minute:100}")
+    private int generalPerMinute;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DistributedRateLimiter distributedRateLimiter;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Routes sorted most specific first; built on first request, once all mappings are registered
+    private volatile List<Route> routes;
+    private volatile Route unmappedRoute;
+
+    public RateLimitFilter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
     @Override
-    protected void doFilterInternal(HttpServletRequest request, 
-                                    HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        
-        String key = getClientKey(request);
-        Bucket bucket = resolveBucket(key, request);
-        
-        if (bucket.tryConsume(1)) {
+
+        Route route = resolveRoute(request);
+        String key = getClientIp(request) + " " + route.pattern;
+        long waitNanos = consume(key, route.limit);
+
+        if (waitNanos == 0) {
             filterChain.doFilter(request, response);
         } else {
-            sendRateLimitError(response, request);
+            sendRateLimitError(response, route, waitNanos);
         }
     }
-    
-    private Bucket resolveBucket(String key, HttpServletRequest request) {
-        return cache.computeIfAbsent(key, k -> createNewBucket(request));
+
+    // Returns 0 if the request may proceed, otherwise the nanoseconds until a token is available
+    private long consume(String key, Limit limit) {
+        if (distributedRateLimiter.isAvailable()) {
+            try {
+                return distributedRateLimiter.tryConsume(key, limit.capacity, limit.period);
+            } catch (RuntimeException e) {
+                // DistributedRateLimiter logged it and backs off; fall through to the local buckets
+            }
+        }
+
+        ConsumptionProbe probe = stripeFor(key).bucket(key, limit).tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed() ? 0 : probe.getNanosToWaitForRefill();
+    }
+
+    // Drop buckets idle for longer than their refill period (they would be full again)
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweepIdleBuckets() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            stripe.sweep(now);
+        }
+    }
+
+    private Route resolveRoute(HttpServletRequest request) {
+        List<Route> candidates = routes;
+        if (candidates == null) {
+            candidates = initRoutes();
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Route route : candidates) {
+            if (route.pathPattern.matches(pathContainer)) {
+                return route;
+            }
+        }
+        return unmappedRoute;
+    }
+
+    private synchronized List<Route> initRoutes() {
+        if (routes != null) {
+            return routes;
+        }
+
+        // One entry per pattern string (several handler methods share a path with different verbs)
+        Map<String, PathPattern> byPattern = new HashMap<>();
+        for (RequestMappingInfo info : handlerMapping.getHandlerMethods().keySet()) {
+            for (String value : info.getPatternValues()) {
+                byPattern.computeIfAbsent(value, PathPatternParser.defaultInstance::parse);
+            }
+        }
+
+        List<PathPattern> patterns = new ArrayList<>(byPattern.values());
+        patterns.sort(ROUTE_ORDER);
+
+        List<Route> resolved = new ArrayList<>(patterns.size());
+        for (PathPattern pattern : patterns) {
+            resolved.add(new Route(pattern, limitFor(pattern.getPatternString())));
+        }
+        unmappedRoute = new Route(null, limitFor(UNMAPPED));
+        routes = resolved;
+        return resolved;
     }
-    
-    private Bucket createNewBucket(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        
+
+    private Limit limitFor(String pattern) {
         // Different limits for different endpoints
-        if (path.contains("/login") || path.contains("/signup")) {
-            // 5 requests per minute for authentication endpoints
-            Bandwidth limit = Bandwidth.classic(5, Refill.intervally(5, Duration.ofMinutes(1)));
-            return Bucket.builder().addLimit(limit).build();
-        } else if (path.contains("/forgot-password") || path.contains("/reset-password")) {
-            // 3 requests per hour for password reset endpoints
-            Bandwidth limit = Bandwidth.classic(3, Refill.intervally(3, Duration.ofHours(1)));
-            return Bucket.builder().addLimit(limit).build();
+        if (LOGIN_PATTERNS.contains(pattern)) {
+            return new Limit(loginPerMinute, Duration.ofMinutes(1));
+        } else if (PASSWORD_RESET_PATTERNS.contains(pattern)) {
+            return new Limit(passwordResetPerHour, Duration.ofHours(1));
         } else {
-            // 100 requests per minute for other endpoints
-            Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1)));
-            return Bucket.builder().addLimit(limit).build();
+            return new Limit(generalPerMinute, Duration.ofMinutes(1));
         }
     }
-    
-    private String getClientKey(HttpServletRequest request) {
+
+    private String getClientIp(HttpServletRequest request) {
         // Use IP address as the key
         String clientIp = request.getHeader("X-Forwarded-For");
         if (clientIp == null || clientIp.isEmpty()) {
             clientIp = request.getRemoteAddr();
         }
-        
-        // Combine IP with endpoint for more granular control
-        return clientIp + ":" + request.getRequestURI();
+        return clientIp;
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
     }
-    
-    private void sendRateLimitError(HttpServletResponse response, HttpServletRequest request) throws IOException {
-        ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.TOO_MANY_REQUESTS.value(),
-                "Rate Limit Exceeded",
-                "Too many requests. Please try again later.",
-                request.getRequestURI()
-        );
-        
+
+    private void sendRateLimitError(HttpServletResponse response, Route route, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        byte[] body = route.rejectionBody(objectMapper);
+
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        
-        ObjectMapper mapper = new ObjectMapper();
-        response.getWriter().write(mapper.writeValueAsString(errorResponse));
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // A controller mapping (null pattern for unmapped paths) and the limit applied to it
+    private static class Route {
+        final PathPattern pathPattern;
+        final String pattern;
+        final Limit limit;
+        private volatile byte[] rejectionBody;
+
+        Route(PathPattern pathPattern, Limit limit) {
+            this.pathPattern = pathPattern;
+            this.pattern = pathPattern != null ? pathPattern.getPatternString() : UNMAPPED;
+            this.limit = limit;
+        }
+
+        byte[] rejectionBody(ObjectMapper objectMapper) throws IOException {
+            byte[] body = rejectionBody;
+            if (body == null) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+                error.put("error", "Rate Limit Exceeded");
+                error.put("message", "Too many requests. Please try again later.");
+                error.put("path", pathPattern != null ? pattern : null);
+                body = objectMapper.writeValueAsBytes(error);
+                rejectionBody = body;
+            }
+            return body;
+        }
+    }
+
+    private static class Limit {
+        final int capacity;
+        final Duration period;
+
+        Limit(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        Bucket newBucket() {
+            Bandwidth limit = Bandwidth.classic(capacity, Refill.intervally(capacity, period));
+            return Bucket.builder().addLimit(limit).build();
+        }
+    }
+
+    private static class Entry {
+        final Bucket bucket;
+        final long idleNanos;
+        long lastAccess;
+
+        Entry(Bucket bucket, long idleNanos) {
+            this.bucket = bucket;
+            this.idleNanos = idleNanos;
+        }
+    }
+
+    // One bounded, access-ordered slice of the bucket store (eldest entry is the least recently used)
+    private class Stripe {
+        private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > Math.max(1, maxKeys / STRIPES);
+            }
+        };
+
+        synchronized Bucket bucket(String key, Limit limit) {
+            long now = System.nanoTime();
+            Entry entry = entries.get(key);
+            if (entry == null || now - entry.lastAccess > entry.idleNanos) {
+                entry = new Entry(limit.newBucket(), limit.period.toNanos());
+                entries.put(key, entry);
+            }
+            entry.lastAccess = now;
+            return entry.bucket;
+        }
+
+        synchronized void sweep(long now) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (now - entry.lastAccess > entry.idleNanos) {
+                    it.remove();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.SalesBreakdown;
+import com.ecommerce.dto.SalesPoint;
+import com.ecommerce.model.SalesRollup;
+import com.ecommerce.service.SalesColumnStore;
+import com.ecommerce.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Autowired
+    private SalesColumnStore salesColumnStore;
+    
+    /**
+     * Sales time series (hourly or daily)
+     * GET /api/admin/analytics/sales?granularity=DAY&from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<List<SalesPoint>> getSalesSeries(
+            @RequestParam(defaultValue = "DAY") SalesRollup.Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.getSalesSeries(granularity, from, to));
+    }
+    
+    /**
+     * Top products by revenue
+     * GET /api/admin/analytics/products/top?from=2024-01-01&to=2024-01-31&limit=10
+     */
+    @GetMapping("/products/top")
+    public ResponseEntity<List<SalesBreakdown>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesRollupService.getBreakdown(
+                SalesRollup.Dimension.PRODUCT, from, to, Math.min(Math.max(limit, 1), 100)));
+    }
+    
+    /**
+     * Sales per category
+     * GET /api/admin/analytics/categories?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<List<SalesBreakdown>> getCategorySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.getBreakdown(SalesRollup.Dimension.CATEGORY, from, to, 1000));
+    }
+    
+    /**
+     * Sales per payment method
+     * GET /api/admin/analytics/payment-methods?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/payment-methods")
+    public ResponseEntity<List<SalesBreakdown>> getPaymentMethodSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.getBreakdown(SalesRollup.Dimension.PAYMENT_METHOD, from, to, 100));
+    }
+    
+    /**
+     * Rebuild the rollups of past days from order history
+     * POST /api/admin/analytics/rebuild?from=2024-01-01&to=2024-01-31
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = salesRollupService.rebuild(from, to);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("daysRebuilt", days);
+        response.put("from", from);
+        response.put("to", to);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Ad-hoc report from the in-memory column store (revenue by category, top brands, order value per day, ...)
+     * GET /api/admin/analytics/reports?groupBy=BRAND&from=2024-01-01&to=2024-01-31&categoryId=3&limit=20
+     */
+    @GetMapping("/reports")
+    public ResponseEntity<List<SalesColumnStore.Group>> getReport(
+            @RequestParam SalesColumnStore.GroupBy groupBy,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(salesColumnStore.groupBy(groupBy, from, to, categoryId,
+                Math.min(Math.max(limit, 1), 1000)));
+    }
+    
+    /**
+     * Column store status
+     * GET /api/admin/analytics/reports/status
+     */
+    @GetMapping("/reports/status")
+    public ResponseEntity<SalesColumnStore.StoreStats> getReportStoreStatus() {
+        return ResponseEntity.ok(salesColumnStore.getStats());
+    }
+    
+    /**
+     * Reload the column store from order history now
+     * POST /api/admin/analytics/reports/reload
+     */
+    @PostMapping("/reports/reload")
+    public ResponseEntity<SalesColumnStore.StoreStats> reloadReportStore() {
+        salesColumnStore.reload();
+        return ResponseEntity.ok(salesColumnStore.getStats());
+    }
+}
@@ -49,6 +49,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/logout-all")
+    public ResponseEntity<Map<String, String>> logoutAll(Authentication authentication) {
+        authService.logoutAll(authentication.getName());
+        
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logged out on all devices");
+        
+        return ResponseEntity.ok(response);
+    }
+    
     // ==================== REFRESH TOKEN ====================
     
     @PostMapping("/refresh")
@@ -4,11 +4,14 @@ import com.ecommerce.dto.AddToCartRequest;
 import com.ecommerce.dto.CartResponse;
 import com.ecommerce.dto.UpdateCartItemRequest;
 import com.ecommerce.model.User;
+import com.ecommerce.service.AbandonedCartSweeper;
+import com.ecommerce.service.AuthenticatedUser;
 import com.ecommerce.service.CartService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +27,9 @@ public class CartController {
     @Autowired
     private CartService cartService;
     
+    @Autowired
+    private AbandonedCartSweeper abandonedCartSweeper;
+    
     @Autowired
     private com.ecommerce.repository.UserRepository userRepository;
     
@@ -33,8 +39,8 @@ public class CartController {
      */
     @GetMapping
     public ResponseEntity<CartResponse> getCart(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getUserFromUserDetails(userDetails);
-        CartResponse cart = cartService.getCart(user.getId());
+        Long userId = getUserId(userDetails);
+        CartResponse cart = cartService.getCart(userId);
         return ResponseEntity.ok(cart);
     }
     
@@ -48,8 +54,8 @@ public class CartController {
             @AuthenticationPrincipal UserDetails userDetails,
             @Valid @RequestBody AddToCartRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        CartResponse cart = cartService.addToCart(user.getId(), request);
+        Long userId = getUserId(userDetails);
+        CartResponse cart = cartService.addToCart(userId, request);
         return ResponseEntity.ok(cart);
     }
     
@@ -64,8 +70,8 @@ public class CartController {
             @PathVariable Long productId,
             @Valid @RequestBody UpdateCartItemRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        CartResponse cart = cartService.updateCartItem(user.getId(), productId, request);
+        Long userId = getUserId(userDetails);
+        CartResponse cart = cartService.updateCartItem(userId, productId, request);
         return ResponseEntity.ok(cart);
     }
     
@@ -78,8 +84,8 @@ public class CartController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long productId) {
         
-        User user = getUserFromUserDetails(userDetails);
-        CartResponse cart = cartService.removeFromCart(user.getId(), productId);
+        Long userId = getUserId(userDetails);
+        CartResponse cart = cartService.removeFromCart(userId, productId);
         return ResponseEntity.ok(cart);
     }
     
@@ -91,8 +97,8 @@ public class CartController {
     public ResponseEntity<Map<String, String>> clearCart(
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        User user = getUserFromUserDetails(userDetails);
-        cartService.clearCart(user.getId());
+        Long userId = getUserId(userDetails);
+        cartService.clearCart(userId);
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Cart cleared successfully");
@@ -108,8 +114,8 @@ public class CartController {
     public ResponseEntity<Map<String, Long>> getCartItemCount(
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        User user = getUserFromUserDetails(userDetails);
-        Long count = cartService.getCartItemCount(user.getId());
+        Long userId = getUserId(userDetails);
+        Long count = cartService.getCartItemCount(userId);
         
         Map<String, Long> response = new HashMap<>();
         response.put("count", count);
@@ -125,15 +131,43 @@ public class CartController {
     public ResponseEntity<CartService.CartValidationResponse> validateCart(
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        User user = getUserFromUserDetails(userDetails);
-        CartService.CartValidationResponse validation = cartService.validateCart(user.getId());
+        Long userId = getUserId(userDetails);
+        CartService.CartValidationResponse validation = cartService.validateCart(userId);
         
         return ResponseEntity.ok(validation);
     }
     
+    // ==================== ADMIN ENDPOINTS ====================
+    
+    /**
+     * Get abandoned cart sweeper metrics (Admin)
+     * GET /api/cart/admin/sweeper
+     */
+    @GetMapping("/admin/sweeper")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AbandonedCartSweeper.SweeperStats> getSweeperStats() {
+        return ResponseEntity.ok(abandonedCartSweeper.getStats());
+    }
+    
+    /**
+     * Run the abandoned cart sweeper now (Admin)
+     * POST /api/cart/admin/sweeper/run
+     */
+    @PostMapping("/admin/sweeper/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AbandonedCartSweeper.SweeperStats> runSweeper() {
+        abandonedCartSweeper.sweep();
+        return ResponseEntity.ok(abandonedCartSweeper.getStats());
+    }
+    
     // Helper method to get User from UserDetails
-    private User getUserFromUserDetails(UserDetails userDetails) {
+    // The principal set by JwtAuthenticationFilter carries the user id; other principals fall back to a lookup
+    private Long getUserId(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();
+        }
         return userRepository.findByEmail(userDetails.getUsername())
+                .map(User::getId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
@@ -1,18 +1,35 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.BulkCancelRequest;
+import com.ecommerce.dto.BulkStatusUpdateRequest;
+import com.ecommerce.dto.BulkStatusUpdateResponse;
 import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.OrderSearchRequest;
+import com.ecommerce.dto.OrderSummaryResponse;
+import com.ecommerce.model.IdempotencyRecord;
 import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderSearchRepository;
+import com.ecommerce.service.AuthenticatedUser;
+import com.ecommerce.service.IdempotencyService;
+import com.ecommerce.service.OrderArchiver;
+import com.ecommerce.service.OrderBulkStatusService;
+import com.ecommerce.service.OrderExportService;
 import com.ecommerce.service.OrderService;
+import com.ecommerce.service.UserOrderStatsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +43,21 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Autowired
+    private OrderBulkStatusService orderBulkStatusService;
+    
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+    
+    @Autowired
+    private OrderArchiver orderArchiver;
+    
     @Autowired
     private com.ecommerce.repository.UserRepository userRepository;
     
@@ -34,14 +66,19 @@ public class OrderController {
     /**
      * Create order from cart
      * POST /api/orders
+     * Optional header Idempotency-Key: retries with the same key return the original order
      */
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(
             @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        OrderResponse order = orderService.createOrder(user.getId(), request);
+        Long userId = getUserId(userDetails);
+        OrderResponse order = idempotencyService.execute(
+                IdempotencyRecord.Scope.CREATE_ORDER, userId, idempotencyKey, request,
+                OrderResponse.class, OrderResponse::getId,
+                () -> orderService.createOrder(userId, request));
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
     
@@ -54,8 +91,8 @@ public class OrderController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
         
-        User user = getUserFromUserDetails(userDetails);
-        OrderResponse order = orderService.getOrder(user.getId(), id);
+        Long userId = getUserId(userDetails);
+        OrderResponse order = orderService.getOrder(userId, id);
         return ResponseEntity.ok(order);
     }
     
@@ -68,8 +105,8 @@ public class OrderController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable String orderNumber) {
         
-        User user = getUserFromUserDetails(userDetails);
-        OrderResponse order = orderService.getOrderByNumber(user.getId(), orderNumber);
+        Long userId = getUserId(userDetails);
+        OrderResponse order = orderService.getOrderByNumber(userId, orderNumber);
         return ResponseEntity.ok(order);
     }
     
@@ -83,8 +120,23 @@ public class OrderController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        User user = getUserFromUserDetails(userDetails);
-        Page<OrderResponse> orders = orderService.getOrderHistory(user.getId(), page, size);
+        Long userId = getUserId(userDetails);
+        Page<OrderResponse> orders = orderService.getOrderHistory(userId, page, size);
+        return ResponseEntity.ok(orders);
+    }
+    
+    /**
+     * Get order history by cursor (keyset paging, newest first)
+     * GET /api/orders/history?cursor=...&size=20
+     */
+    @GetMapping("/history")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrderHistoryPage(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        Long userId = getUserId(userDetails);
+        CursorPage<OrderResponse> orders = orderService.getOrderHistoryPage(userId, cursor, size);
         return ResponseEntity.ok(orders);
     }
     
@@ -96,8 +148,8 @@ public class OrderController {
     public ResponseEntity<List<OrderResponse>> getRecentOrders(
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        User user = getUserFromUserDetails(userDetails);
-        List<OrderResponse> orders = orderService.getRecentOrders(user.getId());
+        Long userId = getUserId(userDetails);
+        List<OrderResponse> orders = orderService.getRecentOrders(userId);
         return ResponseEntity.ok(orders);
     }
     
@@ -111,9 +163,9 @@ public class OrderController {
             @PathVariable Long id,
             @RequestBody(required = false) Map<String, String> body) {
         
-        User user = getUserFromUserDetails(userDetails);
+        Long userId = getUserId(userDetails);
         String reason = body != null ? body.get("reason") : "Cancelled by user";
-        OrderResponse order = orderService.cancelOrder(user.getId(), id, reason);
+        OrderResponse order = orderService.cancelOrder(userId, id, reason);
         return ResponseEntity.ok(order);
     }
     
@@ -125,13 +177,51 @@ public class OrderController {
     public ResponseEntity<OrderService.OrderStatistics> getUserStatistics(
             @AuthenticationPrincipal UserDetails userDetails) {
         
-        User user = getUserFromUserDetails(userDetails);
-        OrderService.OrderStatistics stats = orderService.getUserOrderStatistics(user.getId());
+        Long userId = getUserId(userDetails);
+        OrderService.OrderStatistics stats = orderService.getUserOrderStatistics(userId);
         return ResponseEntity.ok(stats);
     }
     
     // ==================== ADMIN ENDPOINTS ====================
     
+    /**
+     * Search orders (Admin, keyset paging, newest first)
+     * GET /api/orders/admin/search?status=SHIPPED&paymentStatus=PAID&from=2024-01-01T00:00:00&to=...
+     *     &userId=1&minTotal=10&maxTotal=500&country=US&cursor=...&size=50
+     */
+    @GetMapping("/admin/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<OrderSummaryResponse>> searchOrders(
+            OrderSearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        CursorPage<OrderSummaryResponse> orders = orderService.searchOrders(request, cursor, size);
+        return ResponseEntity.ok(orders);
+    }
+    
+    /**
+     * Export orders as CSV or NDJSON (Admin, streamed)
+     * GET /api/orders/admin/export?format=csv&status=...&from=...&to=...
+     */
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            OrderSearchRequest request,
+            @RequestParam(defaultValue = "csv") String format) {
+        
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        OrderSearchRepository.Filter filter = orderExportService.prepare(request);
+        
+        StreamingResponseBody body = outputStream -> orderExportService.export(filter, exportFormat, outputStream);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+    
     /**
      * Update order status (Admin)
      * PUT /api/orders/{id}/status
@@ -147,6 +237,32 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    /**
+     * Bulk status / tracking updates from fulfilment (Admin)
+     * POST /api/orders/admin/bulk-status
+     * Body: {"updates": [{"orderNumber": "...", "status": "SHIPPED", "trackingNumber": "..."}]}
+     */
+    @PostMapping("/admin/bulk-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkUpdateStatus(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        
+        BulkStatusUpdateResponse response = orderBulkStatusService.updateStatuses(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Cancel orders in bulk, restoring their stock (Admin)
+     * POST /api/orders/admin/bulk-cancel
+     * Body: {"orderNumbers": ["..."], "reason": "..."}
+     */
+    @PostMapping("/admin/bulk-cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkCancel(@Valid @RequestBody BulkCancelRequest request) {
+        BulkStatusUpdateResponse response = orderBulkStatusService.cancelOrders(request);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Update payment status (Admin)
      * PUT /api/orders/{id}/payment-status
@@ -177,9 +293,61 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    /**
+     * Rebuild per-user order stats from the orders table (Admin)
+     * POST /api/orders/admin/stats/backfill
+     */
+    @PostMapping("/admin/stats/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillOrderStats() {
+        long users = userOrderStatsService.backfillAll();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("usersUpdated", users);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Compare per-user order stats with the orders table (Admin)
+     * GET /api/orders/admin/stats/verify?limit=100
+     */
+    @GetMapping("/admin/stats/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserOrderStatsService.VerificationResult> verifyOrderStats(
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        return ResponseEntity.ok(userOrderStatsService.verifyAll(limit));
+    }
+    
+    /**
+     * Get order archiver metrics (Admin)
+     * GET /api/orders/admin/archiver
+     */
+    @GetMapping("/admin/archiver")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderArchiver.ArchiverStats> getArchiverStats() {
+        return ResponseEntity.ok(orderArchiver.getStats());
+    }
+    
+    /**
+     * Run order archival now (Admin)
+     * POST /api/orders/admin/archiver/run
+     */
+    @PostMapping("/admin/archiver/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderArchiver.ArchiverStats> runArchiver() {
+        orderArchiver.archive();
+        return ResponseEntity.ok(orderArchiver.getStats());
+    }
+    
     // Helper method to get User from UserDetails
-    private User getUserFromUserDetails(UserDetails userDetails) {
+    // The principal set by JwtAuthenticationFilter carries the user id; other principals fall back to a lookup
+    private Long getUserId(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();
+        }
         return userRepository.findByEmail(userDetails.getUsername())
+                .map(User::getId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
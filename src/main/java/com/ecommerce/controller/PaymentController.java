@@ -2,7 +2,10 @@ package com.ecommerce.controller;
 
 import com.ecommerce.dto.CreatePaymentRequest;
 import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.model.IdempotencyRecord;
 import com.ecommerce.model.User;
+import com.ecommerce.service.AuthenticatedUser;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,20 +29,28 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @Autowired
     private com.ecommerce.repository.UserRepository userRepository;
     
     /**
      * Create payment intent
      * POST /api/payments/create-intent
+     * Optional header Idempotency-Key: retries with the same key return the original intent
      */
     @PostMapping("/create-intent")
     public ResponseEntity<PaymentResponse> createPaymentIntent(
             @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreatePaymentRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        PaymentResponse payment = paymentService.createPaymentIntent(user.getId(), request);
+        Long userId = getUserId(userDetails);
+        PaymentResponse payment = idempotencyService.execute(
+                IdempotencyRecord.Scope.CREATE_PAYMENT_INTENT, userId, idempotencyKey, request,
+                PaymentResponse.class, PaymentResponse::getId,
+                () -> paymentService.createPaymentIntent(userId, request));
         return new ResponseEntity<>(payment, HttpStatus.CREATED);
     }
     
@@ -82,8 +93,8 @@ public class PaymentController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
         
-        User user = getUserFromUserDetails(userDetails);
-        PaymentResponse payment = paymentService.getPayment(user.getId(), id);
+        Long userId = getUserId(userDetails);
+        PaymentResponse payment = paymentService.getPayment(userId, id);
         return ResponseEntity.ok(payment);
     }
     
@@ -97,8 +108,8 @@ public class PaymentController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        User user = getUserFromUserDetails(userDetails);
-        Page<PaymentResponse> payments = paymentService.getUserPaymentHistory(user.getId(), page, size);
+        Long userId = getUserId(userDetails);
+        Page<PaymentResponse> payments = paymentService.getUserPaymentHistory(userId, page, size);
         return ResponseEntity.ok(payments);
     }
     
@@ -112,8 +123,8 @@ public class PaymentController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        User user = getUserFromUserDetails(userDetails);
-        Page<PaymentResponse> payments = paymentService.getUserSuccessfulPayments(user.getId(), page, size);
+        Long userId = getUserId(userDetails);
+        Page<PaymentResponse> payments = paymentService.getUserSuccessfulPayments(userId, page, size);
         return ResponseEntity.ok(payments);
     }
     
@@ -133,8 +144,13 @@ public class PaymentController {
     }
     
     // Helper method
-    private User getUserFromUserDetails(UserDetails userDetails) {
+    // The principal set by JwtAuthenticationFilter carries the user id; other principals fall back to a lookup
+    private Long getUserId(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();
+        }
         return userRepository.findByEmail(userDetails.getUsername())
+                .map(User::getId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
@@ -2,16 +2,22 @@ package com.ecommerce.controller;
 
 import com.ecommerce.dto.*;
 import com.ecommerce.model.User;
+import com.ecommerce.service.AuthenticatedUser;
+import com.ecommerce.service.ProductRatingStatsService;
+import com.ecommerce.service.ReviewModerationService;
+import com.ecommerce.service.ReviewSearchIndex;
 import com.ecommerce.service.ReviewService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +31,12 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
     
+    @Autowired
+    private ProductRatingStatsService productRatingStatsService;
+    
+    @Autowired
+    private ReviewModerationService reviewModerationService;
+    
     @Autowired
     private com.ecommerce.repository.UserRepository userRepository;
     
@@ -128,6 +140,18 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
     
+    /**
+     * Most mentioned words in a product's reviews (search them with the endpoint above)
+     * GET /api/reviews/product/{productId}/mentions?limit=10
+     */
+    @GetMapping("/product/{productId}/mentions")
+    public ResponseEntity<List<ReviewSearchIndex.Mention>> getTopMentions(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(reviewService.getTopMentions(productId, Math.min(Math.max(limit, 1), 50)));
+    }
+    
     /**
      * Get product review summary
      * GET /api/reviews/product/{productId}/summary
@@ -163,8 +187,8 @@ public class ReviewController {
             @AuthenticationPrincipal UserDetails userDetails,
             @Valid @RequestBody CreateReviewRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        ReviewResponse review = reviewService.createReview(user.getId(), request);
+        Long userId = getUserId(userDetails);
+        ReviewResponse review = reviewService.createReview(userId, request);
         return new ResponseEntity<>(review, HttpStatus.CREATED);
     }
     
@@ -178,8 +202,8 @@ public class ReviewController {
             @PathVariable Long id,
             @Valid @RequestBody UpdateReviewRequest request) {
         
-        User user = getUserFromUserDetails(userDetails);
-        ReviewResponse review = reviewService.updateReview(user.getId(), id, request);
+        Long userId = getUserId(userDetails);
+        ReviewResponse review = reviewService.updateReview(userId, id, request);
         return ResponseEntity.ok(review);
     }
     
@@ -192,8 +216,8 @@ public class ReviewController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
         
-        User user = getUserFromUserDetails(userDetails);
-        reviewService.deleteReview(user.getId(), id);
+        Long userId = getUserId(userDetails);
+        reviewService.deleteReview(userId, id);
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Review deleted successfully");
@@ -211,8 +235,8 @@ public class ReviewController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
-        User user = getUserFromUserDetails(userDetails);
-        Page<ReviewResponse> reviews = reviewService.getUserReviews(user.getId(), page, size);
+        Long userId = getUserId(userDetails);
+        Page<ReviewResponse> reviews = reviewService.getUserReviews(userId, page, size);
         return ResponseEntity.ok(reviews);
     }
     
@@ -225,8 +249,8 @@ public class ReviewController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
         
-        User user = getUserFromUserDetails(userDetails);
-        ReviewResponse review = reviewService.markReviewAsHelpful(user.getId(), id);
+        Long userId = getUserId(userDetails);
+        ReviewResponse review = reviewService.markReviewAsHelpful(userId, id);
         return ResponseEntity.ok(review);
     }
     
@@ -239,8 +263,8 @@ public class ReviewController {
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long id) {
         
-        User user = getUserFromUserDetails(userDetails);
-        ReviewResponse review = reviewService.markReviewAsNotHelpful(user.getId(), id);
+        Long userId = getUserId(userDetails);
+        ReviewResponse review = reviewService.markReviewAsNotHelpful(userId, id);
         return ResponseEntity.ok(review);
     }
     
@@ -260,6 +284,36 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
     
+    /**
+     * Get pending reviews by cursor (Admin, keyset paging, newest first)
+     * GET /api/reviews/pending/page?cursor=...&size=50
+     */
+    @GetMapping("/pending/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<ReviewResponse>> getPendingReviewsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        CursorPage<ReviewResponse> reviews = reviewService.getPendingReviewsPage(cursor, size);
+        return ResponseEntity.ok(reviews);
+    }
+    
+    /**
+     * Approve or reject reviews in bulk, by ids or by a filter over pending reviews (Admin, streamed NDJSON)
+     * POST /api/reviews/admin/bulk-moderate
+     */
+    @PostMapping("/admin/bulk-moderate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> bulkModerate(@Valid @RequestBody BulkReviewModerationRequest request) {
+        ReviewModerationService.Plan plan = reviewModerationService.prepare(request);
+        
+        StreamingResponseBody body = outputStream -> reviewModerationService.moderate(plan, outputStream);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     /**
      * Approve review (Admin)
      * PUT /api/reviews/{id}/approve
@@ -297,15 +351,51 @@ public class ReviewController {
         return ResponseEntity.ok(review);
     }
     
+    /**
+     * Rebuild product rating aggregates from the reviews table (Admin)
+     * POST /api/reviews/admin/rating-stats/rebuild
+     */
+    @PostMapping("/admin/rating-stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRatingStats() {
+        long products = productRatingStatsService.rebuildAll();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("productsUpdated", products);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Fill the has-images flag of reviews written before it existed (Admin)
+     * POST /api/reviews/admin/has-images/backfill
+     */
+    @PostMapping("/admin/has-images/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillHasImages() {
+        long reviews = reviewService.backfillHasImages();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("reviewsUpdated", reviews);
+        return ResponseEntity.ok(response);
+    }
+    
     // Helper methods
-    private User getUserFromUserDetails(UserDetails userDetails) {
+    // The principal set by JwtAuthenticationFilter carries the user id; other principals fall back to a lookup
+    private Long getUserId(UserDetails userDetails) {
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();
+        }
         return userRepository.findByEmail(userDetails.getUsername())
+                .map(User::getId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
     private Long getUserIdFromUserDetails(UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
+        if (userDetails instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) userDetails).getUserId();
+        }
+        return userRepository.findByEmail(userDetails.getUsername())
+                .map(User::getId)
                 .orElse(null);
-        return user != null ? user.getId() : null;
     }
 }
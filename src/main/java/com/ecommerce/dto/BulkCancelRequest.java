@@ -0,0 +1,24 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancelRequest {
+    
+    @NotEmpty(message = "At least one order number is required")
+    @Size(max = 10000, message = "At most 10000 orders per request")
+    private List<@NotBlank(message = "Order number is required") String> orderNumbers = new ArrayList<>();
+    
+    @Size(max = 500, message = "Reason must not exceed 500 characters")
+    private String reason;
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Either reviewIds, or a filter over pending reviews (productId / rating / createdBefore)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewModerationRequest {
+
+    @NotBlank(message = "Action is required (APPROVE or REJECT)")
+    private String action;
+
+    @Size(max = 10000, message = "At most 10000 reviews per request")
+    private List<Long> reviewIds = new ArrayList<>();
+
+    private Long productId;
+
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+
+    private LocalDateTime createdBefore;
+}
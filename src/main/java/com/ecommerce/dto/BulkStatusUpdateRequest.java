@@ -0,0 +1,38 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+    
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 10000, message = "At most 10000 updates per request")
+    @Valid
+    private List<Item> updates = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        
+        @NotBlank(message = "Order number is required")
+        private String orderNumber;
+        
+        @NotBlank(message = "Status is required")
+        private String status;
+        
+        @Size(max = 255)
+        private String trackingNumber;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    
+    private Integer requested;
+    private Integer applied;
+    private Integer rejected;
+    private List<Rejection> rejections = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private Integer index;
+        private String orderNumber;
+        private String reason;
+    }
+}
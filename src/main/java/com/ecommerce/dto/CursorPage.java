@@ -0,0 +1,19 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back to fetch the following page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+    private Boolean hasMore;
+}
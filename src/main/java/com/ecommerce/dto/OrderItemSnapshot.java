@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Order item columns captured at checkout, read without touching Order or Product entities
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemSnapshot {
+    
+    private Long orderId;
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private String productImage;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal discountAmount;
+    private BigDecimal subtotal;
+}
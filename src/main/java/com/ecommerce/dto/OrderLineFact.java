@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One order line joined with its order and product attributes, as loaded into the analytics column store
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineFact {
+    
+    private long itemId;
+    private long orderId;
+    private LocalDateTime createdAt;
+    private long productId;
+    private String productName;
+    private long categoryId;
+    private String categoryName;
+    private String brand;
+    private int quantity;
+    private long amountCents;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Admin order filters; every field is optional and bound from query parameters
+@Data
+@NoArgsConstructor
+public class OrderSearchRequest {
+    
+    private String status;
+    private String paymentStatus;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    
+    private Long userId;
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+    private String country;
+}
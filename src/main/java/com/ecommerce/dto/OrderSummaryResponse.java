@@ -0,0 +1,35 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat order row for the admin console and exports (no items)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+    
+    private Long id;
+    private String orderNumber;
+    private Long userId;
+    private String status;
+    private String paymentStatus;
+    private String paymentMethod;
+    private BigDecimal subtotal;
+    private BigDecimal discount;
+    private BigDecimal tax;
+    private BigDecimal shippingCost;
+    private BigDecimal totalAmount;
+    private String shippingName;
+    private String shippingEmail;
+    private String shippingCity;
+    private String shippingCountry;
+    private String trackingNumber;
+    private LocalDateTime createdAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime cancelledAt;
+}
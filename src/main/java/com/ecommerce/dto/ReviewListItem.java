@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Review;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One review row of a listing, read with user and product names in a single query (images are fetched per page)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewListItem {
+    
+    private Long id;
+    private Long userId;
+    private String userName;
+    private Long productId;
+    private String productName;
+    private Integer rating;
+    private String title;
+    private String comment;
+    private Boolean verifiedPurchase;
+    private Boolean hasImages;
+    private Integer helpfulCount;
+    private Integer notHelpfulCount;
+    private Review.ReviewStatus status;
+    private String adminResponse;
+    private LocalDateTime adminResponseAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -33,4 +33,7 @@ public class ReviewResponse {
     
     // User can mark as helpful
     private Boolean markedHelpfulByCurrentUser = false;
+    
+    // Search results only: HTML-escaped excerpt with matches wrapped in <em>
+    private String snippet;
 }
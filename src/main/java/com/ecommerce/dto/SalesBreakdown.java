@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Sales totals of one product / category / payment method over a date range
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBreakdown {
+    
+    private String key;
+    private String label;
+    private Long orders;
+    private Long units;
+    private BigDecimal revenue;
+    
+    // Used by the rollup query; the label is filled in afterwards
+    public SalesBreakdown(String key, Long orders, Long units, BigDecimal revenue) {
+        this(key, null, orders, units, revenue);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Sales totals of one hour / day bucket
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesPoint {
+    
+    private LocalDateTime bucketStart;
+    private Long orders;
+    private Long units;
+    private BigDecimal revenue;
+}
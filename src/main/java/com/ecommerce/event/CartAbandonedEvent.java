@@ -0,0 +1,15 @@
+package com.ecommerce.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Published by the abandoned cart sweeper for every cart it reclaims
+@Data
+@AllArgsConstructor
+public class CartAbandonedEvent {
+    private Long userId;
+    private Integer itemCount;
+    private LocalDateTime lastActivityAt;
+}
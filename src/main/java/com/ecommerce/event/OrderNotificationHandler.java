@@ -0,0 +1,81 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Sends customer emails for order lifecycle events, outside the order transaction.
+// Send failures propagate so the relay retries this handler (at-least-once delivery)
+@Component
+public class OrderNotificationHandler implements OutboxEventHandler {
+    
+    @Autowired
+    private EmailService emailService;
+    
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return true;
+    }
+    
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        if (event.getEventType() == OutboxEvent.EventType.ORDER_STATUS_BATCH) {
+            handleStatusBatch(payload);
+            return;
+        }
+        
+        String email = (String) payload.get("email");
+        String orderNumber = (String) payload.get("orderNumber");
+        
+        if (email == null) {
+            return;
+        }
+        
+        switch (event.getEventType()) {
+            case ORDER_PLACED:
+                emailService.sendOrderConfirmationEmail(email, orderNumber, String.valueOf(payload.get("totalAmount")));
+                break;
+            case ORDER_CANCELLED:
+                emailService.sendOrderCancelledEmail(email, orderNumber, (String) payload.get("reason"));
+                break;
+            case PAYMENT_CONFIRMED:
+                // Receipts only for gateway payments; a payment an admin marks as received has no amount/currency record
+                if (payload.get("paymentId") == null) {
+                    break;
+                }
+                emailService.sendPaymentReceiptEmail(email, orderNumber,
+                        String.valueOf(payload.get("amount")), (String) payload.get("currency"));
+                break;
+            default:
+                break;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void handleStatusBatch(Map<String, Object> payload) {
+        List<Map<String, Object>> transitions = (List<Map<String, Object>>) payload.get("transitions");
+        if (transitions == null) {
+            return;
+        }
+        
+        for (Map<String, Object> transition : transitions) {
+            String email = (String) transition.get("email");
+            String orderNumber = (String) transition.get("orderNumber");
+            
+            if (email == null) {
+                continue;
+            }
+            
+            String status = (String) transition.get("to");
+            if ("SHIPPED".equals(status)) {
+                emailService.sendOrderShippedEmail(email, orderNumber, (String) transition.get("trackingNumber"));
+            } else if ("DELIVERED".equals(status)) {
+                emailService.sendOrderDeliveredEmail(email, orderNumber);
+            }
+        }
+    }
+}
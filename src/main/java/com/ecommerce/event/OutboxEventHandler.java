@@ -0,0 +1,17 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.OutboxEvent;
+
+import java.util.Map;
+
+/**
+ * In-process consumer of outbox events. Implementations are Spring beans and are
+ * discovered by OutboxRelay. Delivery is at-least-once, so handlers must tolerate
+ * seeing the same event twice (event.getIdempotencyKey() is stable across retries).
+ */
+public interface OutboxEventHandler {
+    
+    boolean supports(OutboxEvent.EventType eventType);
+    
+    void handle(OutboxEvent event, Map<String, Object> payload) throws Exception;
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.service.PurchasedProductCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Keeps the verified-purchase cache warm from payment confirmations and drops users whose orders are
+// cancelled or refunded. A confirmation only warms the cache while the order is still PAID, so a late
+// or redelivered event cannot bring back a purchase that was refunded in the meantime.
+@Component
+public class PurchaseCacheHandler implements OutboxEventHandler {
+    
+    @Autowired
+    private PurchasedProductCache purchasedProductCache;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return eventType == OutboxEvent.EventType.PAYMENT_CONFIRMED
+                || eventType == OutboxEvent.EventType.PAYMENT_REFUNDED
+                || eventType == OutboxEvent.EventType.ORDER_CANCELLED;
+    }
+    
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Long userId = ((Number) payload.get("userId")).longValue();
+        
+        if (event.getEventType() != OutboxEvent.EventType.PAYMENT_CONFIRMED) {
+            purchasedProductCache.evictUser(userId);
+            return;
+        }
+        
+        Long orderId = ((Number) payload.get("orderId")).longValue();
+        boolean paid = orderRepository.findPaymentStatusById(orderId)
+                .map(status -> status == Order.PaymentStatus.PAID)
+                .orElse(false);
+        if (paid) {
+            purchasedProductCache.add(userId, orderItemRepository.findProductIdsByOrderId(orderId));
+        }
+    }
+}
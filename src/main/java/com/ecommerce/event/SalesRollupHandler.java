@@ -0,0 +1,47 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Folds paid orders into the sales rollups and takes them out again when refunded or cancelled after payment.
+// Rollup keys are per order, so a cancel and a refund of the same order subtract it only once.
+@Component
+public class SalesRollupHandler implements OutboxEventHandler {
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return eventType == OutboxEvent.EventType.PAYMENT_CONFIRMED
+                || eventType == OutboxEvent.EventType.PAYMENT_REFUNDED
+                || eventType == OutboxEvent.EventType.ORDER_CANCELLED;
+    }
+    
+    @Override
+    public void handle(OutboxEvent event, Map<String, Object> payload) {
+        Long orderId = ((Number) payload.get("orderId")).longValue();
+        
+        switch (event.getEventType()) {
+            case PAYMENT_CONFIRMED:
+                salesRollupService.applyOrder("SALE_PAID:" + orderId, orderId, 1);
+                break;
+            case PAYMENT_REFUNDED:
+                salesRollupService.applyOrder("SALE_REVERSED:" + orderId, orderId, -1);
+                break;
+            case ORDER_CANCELLED:
+                // Only a cancelled order that had been paid (its payment is now REFUNDED) was counted
+                if (Order.PaymentStatus.REFUNDED.name().equals(payload.get("paymentStatus"))) {
+                    salesRollupService.applyOrder("SALE_REVERSED:" + orderId, orderId, -1);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.exception;
+
+// A request with the same Idempotency-Key is still being processed
+public class IdempotencyConflictException extends RuntimeException {
+    
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
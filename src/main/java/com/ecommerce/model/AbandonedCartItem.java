@@ -0,0 +1,49 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Archived copy of a cart line reclaimed by the abandoned cart sweeper.
+// Plain id columns (no foreign keys) so archived rows never block user/product deletes.
+@Entity
+@Table(name = "abandoned_cart_items", indexes = {
+    @Index(name = "idx_abandoned_cart_items_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbandonedCartItem {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "abandoned_cart_items_id_gen")
+    @TableGenerator(name = "abandoned_cart_items_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "abandoned_cart_items", allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "price_at_addition", nullable = false, precision = 10, scale = 2)
+    private BigDecimal priceAtAddition;
+    
+    @Column(name = "added_at")
+    private LocalDateTime addedAt;
+    
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt = LocalDateTime.now();
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Closed order moved out of the orders table by OrderArchiver (same id and columns, no relations)
+@Entity
+@Table(name = "archived_orders", indexes = {
+    @Index(name = "idx_archived_orders_user_created", columnList = "user_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    
+    // Id of the original order
+    @Id
+    private Long id;
+    
+    @Column(name = "order_number", unique = true, nullable = false)
+    private String orderNumber;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private Order.PaymentStatus paymentStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method")
+    private Order.PaymentMethod paymentMethod;
+    
+    // Amounts
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal discount;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal tax;
+    
+    @Column(name = "shipping_cost", nullable = false, precision = 10, scale = 2)
+    private BigDecimal shippingCost;
+    
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+    
+    // Shipping Address
+    @Column(name = "shipping_name", nullable = false)
+    private String shippingName;
+    
+    @Column(name = "shipping_email", nullable = false)
+    private String shippingEmail;
+    
+    @Column(name = "shipping_phone", nullable = false)
+    private String shippingPhone;
+    
+    @Column(name = "shipping_address_line1", nullable = false)
+    private String shippingAddressLine1;
+    
+    @Column(name = "shipping_address_line2")
+    private String shippingAddressLine2;
+    
+    @Column(name = "shipping_city", nullable = false)
+    private String shippingCity;
+    
+    @Column(name = "shipping_state")
+    private String shippingState;
+    
+    @Column(name = "shipping_postal_code", nullable = false)
+    private String shippingPostalCode;
+    
+    @Column(name = "shipping_country", nullable = false)
+    private String shippingCountry;
+    
+    // Additional Info
+    @Column(name = "order_notes", length = 1000)
+    private String orderNotes;
+    
+    @Column(name = "tracking_number")
+    private String trackingNumber;
+    
+    @Column(name = "payment_transaction_id")
+    private String paymentTransactionId;
+    
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+    
+    @Column(name = "cancellation_reason", length = 500)
+    private String cancellationReason;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
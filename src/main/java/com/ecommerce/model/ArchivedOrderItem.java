@@ -0,0 +1,54 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Item of an archived order; user_id is copied from the order for purchase lookups
+@Entity
+@Table(name = "archived_order_items", indexes = {
+    @Index(name = "idx_archived_order_items_order", columnList = "order_id"),
+    @Index(name = "idx_archived_order_items_user_product", columnList = "user_id, product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+    
+    // Id of the original order item
+    @Id
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(name = "product_sku")
+    private String productSku;
+    
+    @Column(name = "product_image")
+    private String productImage;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(name = "discount_amount", precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+    
+    @Column(name = "subtotal", nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Payment of an archived order, kept for audit
+@Entity
+@Table(name = "archived_payments", indexes = {
+    @Index(name = "idx_archived_payments_order", columnList = "order_id"),
+    @Index(name = "idx_archived_payments_user", columnList = "user_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedPayment {
+    
+    // Id of the original payment
+    @Id
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "stripe_payment_intent_id")
+    private String stripePaymentIntentId;
+    
+    @Column(name = "stripe_charge_id")
+    private String stripeChargeId;
+    
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(nullable = false, length = 3)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.PaymentStatus status;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method")
+    private Payment.PaymentMethod paymentMethod;
+    
+    @Column(name = "card_last4")
+    private String cardLast4;
+    
+    @Column(name = "card_brand")
+    private String cardBrand;
+    
+    @Column(name = "receipt_url", length = 500)
+    private String receiptUrl;
+    
+    @Column(name = "failure_message", length = 500)
+    private String failureMessage;
+    
+    @Column(name = "refund_amount", precision = 10, scale = 2)
+    private BigDecimal refundAmount;
+    
+    @Column(name = "refunded")
+    private Boolean refunded;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
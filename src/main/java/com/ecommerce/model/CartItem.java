@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "cart_items", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_cart_items_user_updated", columnList = "user_id, updated_at")
 })
 @Data
 @NoArgsConstructor
@@ -20,7 +22,10 @@ import java.time.LocalDateTime;
 public class CartItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_items_id_gen")
+    @TableGenerator(name = "cart_items_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "cart_items", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
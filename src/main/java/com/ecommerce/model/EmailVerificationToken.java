@@ -15,7 +15,10 @@ import java.time.LocalDateTime;
 public class EmailVerificationToken {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "email_verification_tokens_id_gen")
+    @TableGenerator(name = "email_verification_tokens_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "email_verification_tokens", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -0,0 +1,32 @@
+package com.ecommerce.model;
+
+import java.util.List;
+
+// Shared settings for the table-backed pooled id generators used by write-heavy entities.
+// Unlike IDENTITY, pooled ids are known before INSERT, which lets Hibernate batch inserts.
+public final class IdGenerators {
+    
+    public static final String TABLE = "id_generators";
+    public static final String PK_COLUMN = "gen_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+    
+    // Generator segments; each segment name is the table its ids are allocated for
+    public static final List<String> SEGMENTS = List.of(
+            "products",
+            "cart_items",
+            "abandoned_cart_items",
+            "orders",
+            "order_items",
+            "payments",
+            "reviews",
+            "refresh_tokens",
+            "email_verification_tokens",
+            "password_reset_tokens",
+            "outbox_events",
+            "idempotency_keys"
+    );
+    
+    private IdGenerators() {
+    }
+}
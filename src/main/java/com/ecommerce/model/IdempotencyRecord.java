@@ -0,0 +1,82 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Client-supplied Idempotency-Key for a create request and the response it produced,
+// so retried requests replay the stored response instead of running again.
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_scope_user_key", columnNames = {"scope", "user_id", "idempotency_key"})
+    },
+    indexes = {
+        @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "idempotency_keys_id_gen")
+    @TableGenerator(name = "idempotency_keys_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "idempotency_keys", allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Scope scope;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+    
+    // SHA-256 of the request body; a key reused with a different body is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.IN_PROGRESS;
+    
+    // Id of the created order / payment
+    @Column(name = "resource_id")
+    private Long resourceId;
+    
+    // Serialized response returned to retries
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+    
+    // When the current execution claimed the key; stale claims can be taken over
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    public enum Scope {
+        CREATE_ORDER,
+        CREATE_PAYMENT_INTENT
+    }
+    
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
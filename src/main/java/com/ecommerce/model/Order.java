@@ -10,17 +10,33 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_user_payment_status", columnList = "user_id, payment_status, id"),
+    @Index(name = "idx_orders_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_orders_payment_status_created", columnList = "payment_status, created_at, id"),
+    @Index(name = "idx_orders_country_created", columnList = "shipping_country, created_at, id"),
+    @Index(name = "idx_orders_created", columnList = "created_at, id"),
+    @Index(name = "idx_orders_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id_gen")
+    @TableGenerator(name = "orders_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "orders", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "order_number", unique = true, nullable = false)
@@ -124,7 +140,38 @@ public class Order {
         SHIPPED,
         DELIVERED,
         CANCELLED,
-        REFUNDED
+        REFUNDED;
+        
+        public boolean canTransitionTo(OrderStatus target) {
+            return STATUS_TRANSITIONS.get(this).contains(target);
+        }
+        
+        public Set<OrderStatus> allowedTransitions() {
+            return STATUS_TRANSITIONS.get(this);
+        }
+        
+        // Customers and admins may cancel until the order goes into processing (derived from the transitions)
+        public boolean isCancellable() {
+            return canTransitionTo(CANCELLED);
+        }
+    }
+    
+    // Order state machine: statuses each status may move to (CANCELLED and REFUNDED are final)
+    private static final Map<OrderStatus, Set<OrderStatus>> STATUS_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    
+    static {
+        STATUS_TRANSITIONS.put(OrderStatus.PENDING, Collections.unmodifiableSet(EnumSet.of(
+                OrderStatus.CONFIRMED, OrderStatus.PROCESSING, OrderStatus.CANCELLED)));
+        STATUS_TRANSITIONS.put(OrderStatus.CONFIRMED, Collections.unmodifiableSet(EnumSet.of(
+                OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.CANCELLED, OrderStatus.REFUNDED)));
+        STATUS_TRANSITIONS.put(OrderStatus.PROCESSING, Collections.unmodifiableSet(EnumSet.of(
+                OrderStatus.SHIPPED, OrderStatus.REFUNDED)));
+        STATUS_TRANSITIONS.put(OrderStatus.SHIPPED, Collections.unmodifiableSet(EnumSet.of(
+                OrderStatus.DELIVERED, OrderStatus.REFUNDED)));
+        STATUS_TRANSITIONS.put(OrderStatus.DELIVERED, Collections.unmodifiableSet(EnumSet.of(
+                OrderStatus.REFUNDED)));
+        STATUS_TRANSITIONS.put(OrderStatus.CANCELLED, Collections.unmodifiableSet(EnumSet.noneOf(OrderStatus.class)));
+        STATUS_TRANSITIONS.put(OrderStatus.REFUNDED, Collections.unmodifiableSet(EnumSet.noneOf(OrderStatus.class)));
     }
     
     // Payment Status Enum
@@ -156,7 +203,7 @@ public class Order {
     }
     
     public boolean canBeCancelled() {
-        return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
+        return status.isCancellable();
     }
     
     public boolean isDelivered() {
@@ -166,4 +213,8 @@ public class Order {
     public boolean isCancelled() {
         return status == OrderStatus.CANCELLED;
     }
+    
+    public boolean canTransitionTo(OrderStatus target) {
+        return status.canTransitionTo(target);
+    }
 }
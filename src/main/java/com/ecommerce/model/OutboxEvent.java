@@ -0,0 +1,85 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Side-effect event written in the same transaction as the change that caused it,
+// then dispatched to in-process handlers by OutboxRelay (at-least-once).
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_status_available", columnList = "status, available_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_events_id_gen")
+    @TableGenerator(name = "outbox_events_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "outbox_events", allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private EventType eventType;
+    
+    // Id of the order the event belongs to (first order of the batch for batch events)
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+    
+    // Stable key handlers use to ignore redelivered events
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 150)
+    private String idempotencyKey;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    // Handlers that already succeeded for this event (comma-separated class names); retries skip them
+    @Column(name = "delivered_handlers", length = 1000)
+    private String deliveredHandlers;
+    
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = LocalDateTime.now();
+    
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    public enum EventType {
+        ORDER_PLACED,
+        ORDER_CANCELLED,
+        PAYMENT_CONFIRMED,
+        PAYMENT_REFUNDED,
+        ORDER_STATUS_BATCH   // Many orders changed status in one bulk transition
+    }
+    
+    public enum Status {
+        PENDING,      // Waiting for the relay
+        IN_PROGRESS,  // Claimed by a relay, being dispatched
+        PROCESSED,    // All handlers succeeded
+        FAILED        // Gave up after max attempts
+    }
+}
@@ -15,7 +15,10 @@ import java.time.LocalDateTime;
 public class PasswordResetToken {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "password_reset_tokens_id_gen")
+    @TableGenerator(name = "password_reset_tokens_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "password_reset_tokens", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, unique = true)
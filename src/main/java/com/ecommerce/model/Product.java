@@ -1,5 +1,6 @@
 package com.ecommerce.model;
 
+import com.ecommerce.util.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -21,7 +22,10 @@ import java.util.List;
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "products_id_gen")
+    @TableGenerator(name = "products_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "products", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @NotBlank(message = "Product name is required")
@@ -130,10 +134,7 @@ public class Product {
         if (!hasDiscount()) {
             return 0;
         }
-        BigDecimal discount = price.subtract(discountPrice);
-        return discount.multiply(BigDecimal.valueOf(100))
-                .divide(price, 0, BigDecimal.ROUND_HALF_UP)
-                .intValue();
+        return Money.percentOff(Money.toMinor(price), Money.toMinor(discountPrice));
     }
     
     public String getMainImage() {
@@ -144,16 +145,6 @@ public class Product {
         this.viewCount = (this.viewCount == null ? 0L : this.viewCount) + 1;
     }
     
-    public void incrementSoldCount(Integer quantity) {
-        this.soldCount = (this.soldCount == null ? 0 : this.soldCount) + quantity;
-    }
-    
-    public void decrementStock(Integer quantity) {
-        if (this.stock >= quantity) {
-            this.stock -= quantity;
-        }
-    }
-    
     public void updateRating(Double newRating, Integer newReviewCount) {
         this.averageRating = newRating;
         this.reviewCount = newReviewCount;
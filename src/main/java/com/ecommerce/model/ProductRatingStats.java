@@ -0,0 +1,69 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Per-product aggregates over APPROVED reviews, maintained by ProductRatingStatsService in the
+// same transaction as every review change (read model for review summaries)
+@Entity
+@Table(name = "product_rating_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingStats {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+    
+    // Histogram: number of reviews per star rating
+    @Column(name = "one_star", nullable = false)
+    private Long oneStar = 0L;
+    
+    @Column(name = "two_star", nullable = false)
+    private Long twoStar = 0L;
+    
+    @Column(name = "three_star", nullable = false)
+    private Long threeStar = 0L;
+    
+    @Column(name = "four_star", nullable = false)
+    private Long fourStar = 0L;
+    
+    @Column(name = "five_star", nullable = false)
+    private Long fiveStar = 0L;
+    
+    @Column(name = "verified_count", nullable = false)
+    private Long verifiedCount = 0L;
+    
+    @Column(name = "with_images_count", nullable = false)
+    private Long withImagesCount = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Helper methods
+    public double getAverageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+    }
+    
+    public long getStarCount(int rating) {
+        switch (rating) {
+            case 1: return oneStar;
+            case 2: return twoStar;
+            case 3: return threeStar;
+            case 4: return fourStar;
+            case 5: return fiveStar;
+            default: return 0L;
+        }
+    }
+}
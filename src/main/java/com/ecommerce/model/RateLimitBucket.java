@@ -0,0 +1,37 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Shared rate-limit bucket for cluster-wide limits: tokens consumed in the current fixed window
+// by all nodes together. Nodes take tokens in small leases (see DistributedRateLimiter).
+@Entity
+@Table(name = "rate_limit_buckets",
+    indexes = {
+        @Index(name = "idx_rate_limit_buckets_expires", columnList = "expires_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitBucket {
+    
+    // SHA-256 of client IP and route pattern (client-supplied headers can be arbitrarily long)
+    @Id
+    @Column(name = "bucket_key", length = 64)
+    private String bucketKey;
+    
+    // Start of the current window, epoch millis aligned to the limit period
+    @Column(name = "window_start", nullable = false)
+    private Long windowStart;
+    
+    @Column(nullable = false)
+    private Long consumed;
+    
+    // End of the window; the row is purged after this
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
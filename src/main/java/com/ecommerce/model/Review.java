@@ -14,6 +14,9 @@ import java.util.List;
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_reviews_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_reviews_product_status_created", columnList = "product_id, status, created_at, id")
 })
 @Data
 @NoArgsConstructor
@@ -21,7 +24,10 @@ import java.util.List;
 public class Review {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reviews_id_gen")
+    @TableGenerator(name = "reviews_id_gen", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "reviews", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -49,10 +55,15 @@ public class Review {
     @Column(name = "image_url", length = 500)
     private List<String> images = new ArrayList<>();
     
-    @Column(name = "helpful_count")
+    // Maintained with images so listings can filter without touching review_images (null until backfilled)
+    @Column(name = "has_images")
+    private Boolean hasImages = false;
+    
+    // Vote counters are only written by ReviewVoteService's batched increments, never by entity saves
+    @Column(name = "helpful_count", updatable = false)
     private Integer helpfulCount = 0;
     
-    @Column(name = "not_helpful_count")
+    @Column(name = "not_helpful_count", updatable = false)
     private Integer notHelpfulCount = 0;
     
     @Enumerated(EnumType.STRING)
@@ -81,12 +92,9 @@ public class Review {
     }
     
     // Helper methods
-    public void incrementHelpfulCount() {
-        this.helpfulCount++;
-    }
-    
-    public void incrementNotHelpfulCount() {
-        this.notHelpfulCount++;
+    public void setImages(List<String> images) {
+        this.images = images;
+        this.hasImages = images != null && !images.isEmpty();
     }
     
     public void addImage(String imageUrl) {
@@ -94,6 +102,7 @@ public class Review {
             this.images = new ArrayList<>();
         }
         this.images.add(imageUrl);
+        this.hasImages = true;
     }
     
     public boolean isApproved() {
@@ -0,0 +1,41 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// One helpful / not-helpful vote per (review, user); the primary key enforces the one-vote rule
+@Entity
+@Table(name = "review_votes")
+@IdClass(ReviewVote.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewVote {
+    
+    @Id
+    @Column(name = "review_id")
+    private Long reviewId;
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Boolean helpful;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long reviewId;
+        private Long userId;
+    }
+}
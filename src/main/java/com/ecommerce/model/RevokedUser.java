@@ -0,0 +1,28 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Tombstone of a deleted account, so every node rejects its access tokens (the users row is gone).
+// Kept for one access token lifetime by SecurityVersionService.
+@Entity
+@Table(name = "revoked_users",
+    indexes = {
+        @Index(name = "idx_revoked_users_revoked_at", columnList = "revoked_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedUser {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
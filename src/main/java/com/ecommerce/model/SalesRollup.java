@@ -0,0 +1,70 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Pre-aggregated sales for one (granularity, dimension, key, bucket); paid orders minus refunds and paid-then-cancelled orders.
+// Maintained by SalesRollupService from outbox events and rebuildable from order history.
+@Entity
+@Table(name = "sales_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollups_bucket",
+                columnNames = {"granularity", "dimension", "dimension_key", "bucket_start"})
+    },
+    indexes = {
+        @Index(name = "idx_sales_rollups_range", columnList = "granularity, dimension, bucket_start")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+    
+    // Product id, category id or payment method name
+    @Column(name = "dimension_key", nullable = false, length = 64)
+    private String dimensionKey;
+    
+    // Start of the hour / day (server time)
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    // Item subtotals for PRODUCT / CATEGORY, order totals for PAYMENT_METHOD
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+    
+    public enum Dimension {
+        PRODUCT,
+        CATEGORY,
+        PAYMENT_METHOD
+    }
+}
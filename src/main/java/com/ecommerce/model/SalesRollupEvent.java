@@ -0,0 +1,25 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Outbox events already folded into sales_rollups, so redelivered events are not counted twice
+@Entity
+@Table(name = "sales_rollup_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupEvent {
+    
+    // Idempotency key of the outbox event
+    @Id
+    @Column(name = "event_key", length = 150)
+    private String eventKey;
+    
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -13,7 +13,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_security_version_changed", columnList = "security_version_changed_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -61,6 +63,13 @@ public class User {
     @Column(name = "lockout_time")
     private LocalDateTime lockoutTime;
     
+    // Access tokens carry this version; bumping it invalidates every token issued before
+    @Column(name = "security_version")
+    private Integer securityVersion = 0;
+    
+    @Column(name = "security_version_changed_at")
+    private LocalDateTime securityVersionChangedAt;
+    
     // Two-Factor Authentication
     @Column(name = "two_factor_enabled")
     private Boolean twoFactorEnabled = false;
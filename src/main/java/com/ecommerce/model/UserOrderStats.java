@@ -0,0 +1,76 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Per-user order counters, maintained by UserOrderStatsService in the same
+// transaction as every order/payment change (read model for dashboards)
+@Entity
+@Table(name = "user_order_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStats {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_orders", nullable = false)
+    private Long totalOrders = 0L;
+    
+    @Column(name = "pending_orders", nullable = false)
+    private Long pendingOrders = 0L;
+    
+    @Column(name = "confirmed_orders", nullable = false)
+    private Long confirmedOrders = 0L;
+    
+    @Column(name = "processing_orders", nullable = false)
+    private Long processingOrders = 0L;
+    
+    @Column(name = "shipped_orders", nullable = false)
+    private Long shippedOrders = 0L;
+    
+    @Column(name = "delivered_orders", nullable = false)
+    private Long deliveredOrders = 0L;
+    
+    @Column(name = "cancelled_orders", nullable = false)
+    private Long cancelledOrders = 0L;
+    
+    @Column(name = "refunded_orders", nullable = false)
+    private Long refundedOrders = 0L;
+    
+    // Sum of totalAmount over orders whose payment status is PAID
+    @Column(name = "total_spent", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+    
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Helper methods
+    public long getCount(Order.OrderStatus status) {
+        switch (status) {
+            case PENDING: return pendingOrders;
+            case CONFIRMED: return confirmedOrders;
+            case PROCESSING: return processingOrders;
+            case SHIPPED: return shippedOrders;
+            case DELIVERED: return deliveredOrders;
+            case CANCELLED: return cancelledOrders;
+            case REFUNDED: return refundedOrders;
+            default: return 0L;
+        }
+    }
+    
+    // Orders placed but not yet delivered, cancelled or refunded
+    public long getOpenOrders() {
+        return pendingOrders + confirmedOrders + processingOrders + shippedOrders;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.AbandonedCartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AbandonedCartItemRepository extends JpaRepository<AbandonedCartItem, Long> {
+    
+    List<AbandonedCartItem> findByUserId(Long userId);
+}
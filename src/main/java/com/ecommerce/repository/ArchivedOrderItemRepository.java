@@ -0,0 +1,33 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    
+    List<ArchivedOrderItem> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
+    
+    // Whether the user has a paid archived order containing the product
+    @Query("SELECT COUNT(i) > 0 FROM ArchivedOrderItem i, ArchivedOrder o " +
+           "WHERE o.id = i.orderId AND i.userId = :userId AND i.productId = :productId " +
+           "AND o.paymentStatus = 'PAID'")
+    boolean existsPaidPurchase(@Param("userId") Long userId, @Param("productId") Long productId);
+    
+    // Copy the items of the given orders into the archive in one statement
+    @Modifying
+    @Query(value = "INSERT INTO archived_order_items (id, order_id, user_id, product_id, product_name, " +
+           "product_sku, product_image, quantity, unit_price, discount_amount, subtotal) " +
+           "SELECT i.id, i.order_id, o.user_id, i.product_id, i.product_name, i.product_sku, i.product_image, " +
+           "i.quantity, i.unit_price, i.discount_amount, i.subtotal " +
+           "FROM order_items i JOIN orders o ON o.id = i.order_id WHERE i.order_id IN (:orderIds)",
+           nativeQuery = true)
+    int copyFromOrderItems(@Param("orderIds") Collection<Long> orderIds);
+}
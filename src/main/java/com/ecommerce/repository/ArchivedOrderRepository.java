@@ -0,0 +1,67 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    
+    Optional<ArchivedOrder> findByOrderNumber(String orderNumber);
+    
+    Long countByUserId(Long userId);
+    
+    // Archived order history, first keyset page (newest first)
+    @Query("SELECT o FROM ArchivedOrder o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<ArchivedOrder> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+    
+    // Archived order history, keyset page after (createdAt, id)
+    @Query("SELECT o FROM ArchivedOrder o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<ArchivedOrder> findHistoryPageAfter(@Param("userId") Long userId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
+    // Archived order history, newest first, `limit` rows starting at `offset` (page-number listing)
+    @Query(value = "SELECT * FROM archived_orders WHERE user_id = :userId " +
+           "ORDER BY created_at DESC, id DESC LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<ArchivedOrder> findHistoryRange(@Param("userId") Long userId,
+                                         @Param("offset") long offset,
+                                         @Param("limit") int limit);
+    
+    // Per-status order counts and latest order time for a set of users (stats rebuild)
+    @Query("SELECT o.userId, o.status, COUNT(o), MAX(o.createdAt) FROM ArchivedOrder o " +
+           "WHERE o.userId IN :userIds GROUP BY o.userId, o.status")
+    List<Object[]> countByStatusForUsers(@Param("userIds") Collection<Long> userIds);
+    
+    // Paid order totals for a set of users (stats rebuild)
+    @Query("SELECT o.userId, SUM(o.totalAmount) FROM ArchivedOrder o " +
+           "WHERE o.userId IN :userIds AND o.paymentStatus = 'PAID' GROUP BY o.userId")
+    List<Object[]> sumPaidForUsers(@Param("userIds") Collection<Long> userIds);
+    
+    // Copy orders into the archive in one statement
+    @Modifying
+    @Query(value = "INSERT INTO archived_orders (id, order_number, user_id, status, payment_status, payment_method, " +
+           "subtotal, discount, tax, shipping_cost, total_amount, shipping_name, shipping_email, shipping_phone, " +
+           "shipping_address_line1, shipping_address_line2, shipping_city, shipping_state, shipping_postal_code, " +
+           "shipping_country, order_notes, tracking_number, payment_transaction_id, cancelled_at, " +
+           "cancellation_reason, created_at, updated_at, delivered_at, archived_at) " +
+           "SELECT id, order_number, user_id, status, payment_status, payment_method, " +
+           "subtotal, discount, tax, shipping_cost, total_amount, shipping_name, shipping_email, shipping_phone, " +
+           "shipping_address_line1, shipping_address_line2, shipping_city, shipping_state, shipping_postal_code, " +
+           "shipping_country, order_notes, tracking_number, payment_transaction_id, cancelled_at, " +
+           "cancellation_reason, created_at, updated_at, delivered_at, :archivedAt " +
+           "FROM orders WHERE id IN (:orderIds)", nativeQuery = true)
+    int copyFromOrders(@Param("orderIds") Collection<Long> orderIds, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ArchivedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+    
+    List<ArchivedPayment> findByOrderId(Long orderId);
+    
+    // Copy the payments of the given orders into the archive in one statement
+    @Modifying
+    @Query(value = "INSERT INTO archived_payments (id, order_id, user_id, stripe_payment_intent_id, " +
+           "stripe_charge_id, amount, currency, status, payment_method, card_last4, card_brand, receipt_url, " +
+           "failure_message, refund_amount, refunded, created_at, completed_at) " +
+           "SELECT id, order_id, user_id, stripe_payment_intent_id, stripe_charge_id, amount, currency, status, " +
+           "payment_method, card_last4, card_brand, receipt_url, failure_message, refund_amount, refunded, " +
+           "created_at, completed_at FROM payments WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int copyFromPayments(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,12 +1,14 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.CartItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +46,27 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem c WHERE c.user.id = :userId AND c.product.id = :productId")
     void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+    
+    // Keyset page of users whose whole cart has been idle since before the cutoff
+    @Query("SELECT c.user.id FROM CartItem c " +
+           "WHERE c.user.id > :afterUserId " +
+           "GROUP BY c.user.id " +
+           "HAVING MAX(COALESCE(c.updatedAt, c.addedAt)) < :cutoff " +
+           "ORDER BY c.user.id")
+    List<Long> findAbandonedCartUserIds(@Param("afterUserId") Long afterUserId,
+                                        @Param("cutoff") LocalDateTime cutoff,
+                                        Pageable pageable);
+    
+    // Stale cart items for a chunk of users (archive / event payloads)
+    @Query("SELECT c FROM CartItem c " +
+           "WHERE c.user.id IN :userIds AND COALESCE(c.updatedAt, c.addedAt) < :cutoff")
+    List<CartItem> findStaleByUserIds(@Param("userIds") List<Long> userIds,
+                                      @Param("cutoff") LocalDateTime cutoff);
+    
+    // Delete stale cart items for a chunk of users
+    @Modifying
+    @Query("DELETE FROM CartItem c " +
+           "WHERE c.user.id IN :userIds AND COALESCE(c.updatedAt, c.addedAt) < :cutoff")
+    int deleteStaleByUserIds(@Param("userIds") List<Long> userIds,
+                             @Param("cutoff") LocalDateTime cutoff);
 }
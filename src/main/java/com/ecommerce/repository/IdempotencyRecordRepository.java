@@ -0,0 +1,46 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    
+    Optional<IdempotencyRecord> findByScopeAndUserIdAndIdempotencyKey(
+            IdempotencyRecord.Scope scope, Long userId, String idempotencyKey);
+    
+    // Store the response (runs in the same transaction as the create it belongs to)
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.resourceId = :resourceId, " +
+           "r.responseBody = :responseBody, r.completedAt = :now WHERE r.id = :id")
+    int markCompleted(@Param("id") Long id,
+                      @Param("status") IdempotencyRecord.Status status,
+                      @Param("resourceId") Long resourceId,
+                      @Param("responseBody") String responseBody,
+                      @Param("now") LocalDateTime now);
+    
+    // Take over a claim whose execution stopped without completing or releasing it
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedAt = :now " +
+           "WHERE r.id = :id AND r.status = :status AND r.lockedAt < :staleBefore")
+    int takeOverStaleClaim(@Param("id") Long id,
+                           @Param("status") IdempotencyRecord.Status status,
+                           @Param("staleBefore") LocalDateTime staleBefore,
+                           @Param("now") LocalDateTime now);
+    
+    // Release a claim after the create failed, so the client can retry with the same key
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = :status")
+    int deleteClaim(@Param("id") Long id, @Param("status") IdempotencyRecord.Status status);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Set-based order status writes over plain JDBC, mixed into OrderRepository
+public interface OrderBulkRepository {
+    
+    // Lock and read the current state of the given orders (must run inside a transaction)
+    List<OrderState> lockStatesByOrderNumbers(Collection<String> orderNumbers);
+    
+    // Move every listed order still in fromStatus to toStatus in one statement; returns rows changed
+    int updateStatus(Collection<Long> orderIds, Order.OrderStatus fromStatus, Order.OrderStatus toStatus, LocalDateTime now);
+    
+    // Set tracking numbers by order id in one batch
+    void updateTrackingNumbers(Map<Long, String> trackingNumbers);
+    
+    // Cancel every listed order still in fromStatus in one statement (PAID becomes REFUNDED); returns rows changed
+    int cancelOrders(Collection<Long> orderIds, Order.OrderStatus fromStatus, String reason, LocalDateTime now);
+    
+    // Columns needed to validate a status transition, without loading the Order entity
+    @Data
+    class OrderState {
+        private Long id;
+        private String orderNumber;
+        private Long userId;
+        private Order.OrderStatus status;
+        private Order.PaymentStatus paymentStatus;
+        private String shippingEmail;
+        private String trackingNumber;
+        private BigDecimal totalAmount;
+    }
+}
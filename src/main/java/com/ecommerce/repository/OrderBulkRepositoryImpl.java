@@ -0,0 +1,107 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of bulk status writes.
+ * Runs inside the caller's JPA transaction (JpaTransactionManager exposes its connection to JdbcTemplate).
+ */
+public class OrderBulkRepositoryImpl implements OrderBulkRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<OrderState> lockStatesByOrderNumbers(Collection<String> orderNumbers) {
+        if (orderNumbers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        String sql = "SELECT id, order_number, user_id, status, payment_status, shipping_email, tracking_number, total_amount " +
+                "FROM orders WHERE order_number IN (" + placeholders(orderNumbers.size()) + ") " +
+                "ORDER BY id FOR UPDATE";
+        
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            OrderState state = new OrderState();
+            state.setId(rs.getLong("id"));
+            state.setOrderNumber(rs.getString("order_number"));
+            state.setUserId(rs.getLong("user_id"));
+            state.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+            state.setPaymentStatus(Order.PaymentStatus.valueOf(rs.getString("payment_status")));
+            state.setShippingEmail(rs.getString("shipping_email"));
+            state.setTrackingNumber(rs.getString("tracking_number"));
+            state.setTotalAmount(rs.getBigDecimal("total_amount"));
+            return state;
+        }, orderNumbers.toArray());
+    }
+    
+    @Override
+    public int updateStatus(Collection<Long> orderIds, Order.OrderStatus fromStatus, Order.OrderStatus toStatus, LocalDateTime now) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        
+        String deliveredAt = toStatus == Order.OrderStatus.DELIVERED ? "?" : "delivered_at";
+        String sql = "UPDATE orders SET status = ?, updated_at = ?, delivered_at = " + deliveredAt +
+                " WHERE status = ? AND id IN (" + placeholders(orderIds.size()) + ")";
+        
+        List<Object> args = new ArrayList<>(orderIds.size() + 4);
+        args.add(toStatus.name());
+        args.add(now);
+        if (toStatus == Order.OrderStatus.DELIVERED) {
+            args.add(now);
+        }
+        args.add(fromStatus.name());
+        args.addAll(orderIds);
+        
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    @Override
+    public void updateTrackingNumbers(Map<Long, String> trackingNumbers) {
+        if (trackingNumbers.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> args = new ArrayList<>(trackingNumbers.size());
+        trackingNumbers.forEach((id, trackingNumber) -> args.add(new Object[] {trackingNumber, id}));
+        
+        jdbcTemplate.batchUpdate("UPDATE orders SET tracking_number = ? WHERE id = ?", args);
+    }
+    
+    @Override
+    public int cancelOrders(Collection<Long> orderIds, Order.OrderStatus fromStatus, String reason, LocalDateTime now) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "UPDATE orders SET status = ?, cancelled_at = ?, cancellation_reason = ?, updated_at = ?, " +
+                "payment_status = CASE WHEN payment_status = ? THEN ? ELSE payment_status END " +
+                "WHERE status = ? AND id IN (" + placeholders(orderIds.size()) + ")";
+        
+        List<Object> args = new ArrayList<>(orderIds.size() + 7);
+        args.add(Order.OrderStatus.CANCELLED.name());
+        args.add(now);
+        args.add(reason);
+        args.add(now);
+        args.add(Order.PaymentStatus.PAID.name());
+        args.add(Order.PaymentStatus.REFUNDED.name());
+        args.add(fromStatus.name());
+        args.addAll(orderIds);
+        
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,19 +1,59 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.OrderItemSnapshot;
+import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, OrderLineScanRepository {
     
     // Find all items in an order
     List<OrderItem> findByOrderId(Long orderId);
     
+    // Snapshot columns of the items of several orders in one query (no product/order loads)
+    @Query("SELECT new com.ecommerce.dto.OrderItemSnapshot(oi.order.id, oi.id, oi.product.id, " +
+           "oi.productName, oi.productSku, oi.productImage, oi.quantity, oi.unitPrice, " +
+           "oi.discountAmount, oi.subtotal) " +
+           "FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemSnapshot> findSnapshotsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
+    // Product, category, quantity and subtotal of each item of an order (sales rollups)
+    @Query("SELECT oi.product.id, oi.product.category.id, oi.quantity, oi.subtotal " +
+           "FROM OrderItem oi WHERE oi.order.id = :orderId")
+    List<Object[]> findRollupLinesByOrderId(@Param("orderId") Long orderId);
+    
+    // Existence check that stops at the first matching row (derived exists query, fetch first 1)
+    // (user's paid orders via idx_orders_user_payment_status, then idx_order_items_order_product)
+    boolean existsByOrderUserIdAndOrderPaymentStatusAndProductId(Long userId, Order.PaymentStatus paymentStatus,
+                                                                Long productId);
+    
+    // Whether the user has a paid order containing the product
+    default boolean existsPaidPurchase(Long userId, Long productId) {
+        return existsByOrderUserIdAndOrderPaymentStatusAndProductId(userId, Order.PaymentStatus.PAID, productId);
+    }
+    
+    // Distinct products of an order
+    @Query("SELECT DISTINCT oi.product.id FROM OrderItem oi WHERE oi.order.id = :orderId")
+    List<Long> findProductIdsByOrderId(@Param("orderId") Long orderId);
+    
+    // Total quantity per product over the items of several orders (stock restoration)
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.order.id IN :orderIds GROUP BY oi.product.id")
+    List<Object[]> sumQuantitiesByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+    
+    // Remove the items of archived orders
+    @Modifying
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+    
     // Find all orders containing a specific product
     List<OrderItem> findByProductId(Long productId);
     
@@ -0,0 +1,14 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderLineFact;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Streaming scans of order lines over plain JDBC, mixed into OrderItemRepository
+public interface OrderLineScanRepository {
+    
+    // Stream the lines of paid live (or archived) orders last changed at or after updatedFrom
+    // (null for all), ordered by order id so the lines of one order arrive together
+    void scanLines(boolean archived, LocalDateTime updatedFrom, Consumer<OrderLineFact> consumer);
+}
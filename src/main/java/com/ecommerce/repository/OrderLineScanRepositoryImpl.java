@@ -0,0 +1,61 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderLineFact;
+import com.ecommerce.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * JDBC implementation of order line scans.
+ * Reads through a forward-only statement with fetch size Integer.MIN_VALUE (Connector/J row
+ * streaming), so a full history load streams from the server instead of buffering the result set.
+ */
+public class OrderLineScanRepositoryImpl implements OrderLineScanRepository {
+    
+    private static final String SELECT_COLUMNS =
+            "SELECT i.id, i.order_id, o.created_at, i.product_id, p.name, p.category_id, c.name, p.brand, " +
+            "i.quantity, i.subtotal ";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void scanLines(boolean archived, LocalDateTime updatedFrom, Consumer<OrderLineFact> consumer) {
+        String sql = SELECT_COLUMNS +
+                (archived
+                        ? "FROM archived_orders o JOIN archived_order_items i ON i.order_id = o.id "
+                        : "FROM orders o JOIN order_items i ON i.order_id = o.id ") +
+                "JOIN products p ON p.id = i.product_id JOIN categories c ON c.id = p.category_id " +
+                "WHERE o.payment_status = 'PAID'" +
+                (updatedFrom != null ? " AND o.updated_at >= ?" : "") +
+                " ORDER BY i.order_id, i.id";
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            if (updatedFrom != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(updatedFrom));
+            }
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(new OrderLineFact(
+                resultSet.getLong(1),
+                resultSet.getLong(2),
+                resultSet.getTimestamp(3).toLocalDateTime(),
+                resultSet.getLong(4),
+                resultSet.getString(5),
+                resultSet.getLong(6),
+                resultSet.getString(7),
+                resultSet.getString(8),
+                resultSet.getInt(9),
+                Money.toMinor(resultSet.getBigDecimal(10))
+        )));
+    }
+}
@@ -1,21 +1,25 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.math.BigDecimal;
 
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderSearchRepository, OrderBulkRepository {
     
     // Find order by order number
     Optional<Order> findByOrderNumber(String orderNumber);
@@ -36,10 +40,32 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     List<Order> findRecentOrdersByUserId(@Param("userId") Long userId, Pageable pageable);
     
+    // Order history, first keyset page (newest first)
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+    
+    // Order history, keyset page after (createdAt, id)
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPageAfter(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
     // Find orders with items (eager loading)
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
     
+    // Same, locking the order row so concurrent status changes (single or bulk) apply one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
+    Optional<Order> findByIdWithItemsForUpdate(@Param("id") Long id);
+    
+    // Current payment status only (no entity load)
+    @Query("SELECT o.paymentStatus FROM Order o WHERE o.id = :id")
+    Optional<Order.PaymentStatus> findPaymentStatusById(@Param("id") Long id);
+    
     // Find orders by order number with items
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.orderNumber = :orderNumber")
     Optional<Order> findByOrderNumberWithItems(@Param("orderNumber") String orderNumber);
@@ -59,6 +85,46 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Check if order number exists
     boolean existsByOrderNumber(String orderNumber);
     
+    // Per-status order counts and latest order time for a set of users (stats rebuild)
+    @Query("SELECT o.user.id, o.status, COUNT(o), MAX(o.createdAt) FROM Order o " +
+           "WHERE o.user.id IN :userIds GROUP BY o.user.id, o.status")
+    List<Object[]> countByStatusForUsers(@Param("userIds") Collection<Long> userIds);
+    
+    // Paid order totals for a set of users (stats rebuild)
+    @Query("SELECT o.user.id, SUM(o.totalAmount) FROM Order o " +
+           "WHERE o.user.id IN :userIds AND o.paymentStatus = 'PAID' GROUP BY o.user.id")
+    List<Object[]> sumPaidForUsers(@Param("userIds") Collection<Long> userIds);
+    
+    // Keyset page of users that have live or archived orders (stats backfill)
+    @Query(value = "SELECT u.user_id FROM (" +
+           "SELECT DISTINCT user_id FROM orders WHERE user_id > :afterUserId " +
+           "UNION SELECT DISTINCT user_id FROM archived_orders WHERE user_id > :afterUserId" +
+           ") u ORDER BY u.user_id LIMIT :limit", nativeQuery = true)
+    List<Long> findUserIdsWithOrdersAfter(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+    
+    // Orders changed since a point in time that are not (or no longer) paid (analytics column store refresh)
+    @Query("SELECT o.id FROM Order o WHERE o.paymentStatus <> com.ecommerce.model.Order.PaymentStatus.PAID " +
+           "AND o.updatedAt >= :since")
+    List<Long> findUnpaidIdsChangedSince(@Param("since") LocalDateTime since);
+    
+    // Keyset page of closed orders whose last change is older than the cutoff (archival candidates)
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId AND o.status IN :statuses " +
+           "AND COALESCE(o.deliveredAt, o.cancelledAt, o.updatedAt) < :cutoff ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("afterId") Long afterId,
+                                 @Param("statuses") Collection<Order.OrderStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+    
+    // Lock the candidates that are still closed (runs inside the archival transaction)
+    @Query(value = "SELECT id FROM orders WHERE id IN (:orderIds) AND status IN (:statuses) ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockClosedIds(@Param("orderIds") Collection<Long> orderIds,
+                             @Param("statuses") Collection<String> statuses);
+    
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :orderIds")
+    int deleteByIds(@Param("orderIds") Collection<Long> orderIds);
+    
     // Get total sales (admin)
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.paymentStatus = 'PAID'")
     BigDecimal getTotalSales();
@@ -0,0 +1,33 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderSummaryResponse;
+import com.ecommerce.model.Order;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Admin order search over plain JDBC, mixed into OrderRepository
+public interface OrderSearchRepository {
+    
+    // One keyset page ordered by (createdAt, id) descending; afterCreatedAt/afterId are null for the first page
+    List<OrderSummaryResponse> searchOrders(Filter filter, LocalDateTime afterCreatedAt, Long afterId, int limit);
+    
+    // Stream every matching order row by row, newest first
+    void streamOrders(Filter filter, Consumer<OrderSummaryResponse> consumer);
+    
+    // Parsed admin filters; null fields are not applied
+    @Data
+    class Filter {
+        private Order.OrderStatus status;
+        private Order.PaymentStatus paymentStatus;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private Long userId;
+        private BigDecimal minTotal;
+        private BigDecimal maxTotal;
+        private String country;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderSummaryResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC implementation of the admin order search.
+ *
+ * Rows are read straight into OrderSummaryResponse (no entity hydration, no items). Equality
+ * filters come first so MySQL can use the (column, created_at, id) indexes on orders for both
+ * the filter and the ORDER BY. Exports stream the result row by row (a forward-only statement with
+ * fetch size Integer.MIN_VALUE, Connector/J's streaming mode) instead of buffering it; the setting
+ * is per statement, so other queries on the pool keep normal result sets.
+ */
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+    
+    private static final String SELECT_COLUMNS =
+            "SELECT o.id, o.order_number, o.user_id, o.status, o.payment_status, o.payment_method, " +
+            "o.subtotal, o.discount, o.tax, o.shipping_cost, o.total_amount, o.shipping_name, " +
+            "o.shipping_email, o.shipping_city, o.shipping_country, o.tracking_number, " +
+            "o.created_at, o.delivered_at, o.cancelled_at FROM orders o";
+    
+    private static final String ORDER_BY = " ORDER BY o.created_at DESC, o.id DESC";
+    
+    private static final RowMapper<OrderSummaryResponse> ROW_MAPPER = OrderSearchRepositoryImpl::mapRow;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<OrderSummaryResponse> searchOrders(Filter filter, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        List<String> conditions = conditions(filter, args);
+        
+        if (afterCreatedAt != null) {
+            conditions.add("(o.created_at < ? OR (o.created_at = ? AND o.id < ?))");
+            args.add(afterCreatedAt);
+            args.add(afterCreatedAt);
+            args.add(afterId);
+        }
+        
+        appendWhere(sql, conditions);
+        sql.append(ORDER_BY).append(" LIMIT ?");
+        args.add(limit);
+        
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+    
+    @Override
+    public void streamOrders(Filter filter, Consumer<OrderSummaryResponse> consumer) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        appendWhere(sql, conditions(filter, args));
+        sql.append(ORDER_BY);
+        
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet, 0)));
+    }
+    
+    private static List<String> conditions(Filter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        
+        // Equality filters (leading index columns)
+        if (filter.getUserId() != null) {
+            conditions.add("o.user_id = ?");
+            args.add(filter.getUserId());
+        }
+        if (filter.getStatus() != null) {
+            conditions.add("o.status = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getPaymentStatus() != null) {
+            conditions.add("o.payment_status = ?");
+            args.add(filter.getPaymentStatus().name());
+        }
+        if (filter.getCountry() != null && !filter.getCountry().isBlank()) {
+            conditions.add("o.shipping_country = ?");
+            args.add(filter.getCountry().trim());
+        }
+        
+        // Range filters
+        if (filter.getFrom() != null) {
+            conditions.add("o.created_at >= ?");
+            args.add(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            conditions.add("o.created_at < ?");
+            args.add(filter.getTo());
+        }
+        if (filter.getMinTotal() != null) {
+            conditions.add("o.total_amount >= ?");
+            args.add(filter.getMinTotal());
+        }
+        if (filter.getMaxTotal() != null) {
+            conditions.add("o.total_amount <= ?");
+            args.add(filter.getMaxTotal());
+        }
+        
+        return conditions;
+    }
+    
+    private static void appendWhere(StringBuilder sql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+    
+    private static OrderSummaryResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OrderSummaryResponse(
+                rs.getLong("id"),
+                rs.getString("order_number"),
+                rs.getLong("user_id"),
+                rs.getString("status"),
+                rs.getString("payment_status"),
+                rs.getString("payment_method"),
+                rs.getBigDecimal("subtotal"),
+                rs.getBigDecimal("discount"),
+                rs.getBigDecimal("tax"),
+                rs.getBigDecimal("shipping_cost"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("shipping_name"),
+                rs.getString("shipping_email"),
+                rs.getString("shipping_city"),
+                rs.getString("shipping_country"),
+                rs.getString("tracking_number"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("delivered_at", LocalDateTime.class),
+                rs.getObject("cancelled_at", LocalDateTime.class));
+    }
+}
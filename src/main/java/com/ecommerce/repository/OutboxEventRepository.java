@@ -0,0 +1,61 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    boolean existsByIdempotencyKey(String idempotencyKey);
+    
+    // Lock the next due events, skipping rows another relay node has locked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e " +
+           "WHERE e.status = :status AND e.availableAt <= :now " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("status") OutboxEvent.Status status,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.claimedAt = :now WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") List<Long> ids,
+                    @Param("status") OutboxEvent.Status status,
+                    @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :now, e.lastError = NULL " +
+           "WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") List<Long> ids,
+                      @Param("status") OutboxEvent.Status status,
+                      @Param("now") LocalDateTime now);
+    
+    // Return events whose relay died mid-dispatch to the pending queue
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :pending " +
+           "WHERE e.status = :inProgress AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("pending") OutboxEvent.Status pending,
+                           @Param("inProgress") OutboxEvent.Status inProgress,
+                           @Param("cutoff") LocalDateTime cutoff);
+    
+    Long countByStatus(OutboxEvent.Status status);
+    
+    // Purge processed events older than the retention window
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("status") OutboxEvent.Status status,
+                              @Param("cutoff") LocalDateTime cutoff);
+}
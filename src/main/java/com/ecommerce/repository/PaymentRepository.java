@@ -4,8 +4,12 @@ import com.ecommerce.model.Payment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,4 +33,9 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     // Count payments by user
     Long countByUserId(Long userId);
+    
+    // Remove the payments of archived orders
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.order.id IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,66 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+    
+    // Atomically add deltas to a product's aggregates (no read-modify-write)
+    @Modifying
+    @Query(value = "UPDATE product_rating_stats SET " +
+           "review_count = review_count + :count, " +
+           "rating_sum = rating_sum + :sum, " +
+           "one_star = one_star + :one, " +
+           "two_star = two_star + :two, " +
+           "three_star = three_star + :three, " +
+           "four_star = four_star + :four, " +
+           "five_star = five_star + :five, " +
+           "verified_count = verified_count + :verified, " +
+           "with_images_count = with_images_count + :withImages, " +
+           "updated_at = NOW() " +
+           "WHERE product_id = :productId", nativeQuery = true)
+    int addDeltas(@Param("productId") Long productId,
+                  @Param("count") long count,
+                  @Param("sum") long sum,
+                  @Param("one") long one,
+                  @Param("two") long two,
+                  @Param("three") long three,
+                  @Param("four") long four,
+                  @Param("five") long five,
+                  @Param("verified") long verified,
+                  @Param("withImages") long withImages);
+    
+    // Recompute the aggregates of the given products from their approved reviews (insert or overwrite)
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_stats (product_id, review_count, rating_sum, one_star, two_star, " +
+           "three_star, four_star, five_star, verified_count, with_images_count, updated_at) " +
+           "SELECT p.id, COUNT(r.id), COALESCE(SUM(r.rating), 0), " +
+           "COALESCE(SUM(r.rating = 1), 0), COALESCE(SUM(r.rating = 2), 0), COALESCE(SUM(r.rating = 3), 0), " +
+           "COALESCE(SUM(r.rating = 4), 0), COALESCE(SUM(r.rating = 5), 0), " +
+           "COALESCE(SUM(r.verified_purchase = 1), 0), " +
+           "COALESCE(SUM(COALESCE(r.has_images, EXISTS (SELECT 1 FROM review_images i WHERE i.review_id = r.id))), 0), NOW() " +
+           "FROM products p LEFT JOIN reviews r ON r.product_id = p.id AND r.status = 'APPROVED' " +
+           "WHERE p.id IN (:productIds) GROUP BY p.id " +
+           "ON DUPLICATE KEY UPDATE " +
+           "review_count = VALUES(review_count), rating_sum = VALUES(rating_sum), " +
+           "one_star = VALUES(one_star), two_star = VALUES(two_star), three_star = VALUES(three_star), " +
+           "four_star = VALUES(four_star), five_star = VALUES(five_star), " +
+           "verified_count = VALUES(verified_count), with_images_count = VALUES(with_images_count), " +
+           "updated_at = NOW()", nativeQuery = true)
+    int rebuild(@Param("productIds") Collection<Long> productIds);
+    
+    // Copy average rating and review count onto the products (used for listing and sorting)
+    @Modifying
+    @Query(value = "UPDATE products p JOIN product_rating_stats s ON s.product_id = p.id " +
+           "SET p.average_rating = IF(s.review_count > 0, s.rating_sum / s.review_count, 0), " +
+           "p.review_count = s.review_count " +
+           "WHERE p.id IN (:productIds)", nativeQuery = true)
+    int syncProducts(@Param("productIds") Collection<Long> productIds);
+}
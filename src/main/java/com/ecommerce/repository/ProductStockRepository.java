@@ -0,0 +1,15 @@
+package com.ecommerce.repository;
+
+import java.util.List;
+import java.util.Map;
+
+// Set-based stock writes over plain JDBC, mixed into ProductRepository
+public interface ProductStockRepository {
+    
+    // Take quantities out of stock (and add them to sold counts) where enough is left, one guarded decrement
+    // per product; returns the ids of products with too little stock (the caller rolls back)
+    List<Long> reserveStock(Map<Long, Integer> quantitiesByProduct);
+    
+    // Put quantities back in stock (and take them off sold counts) with one atomic increment per product
+    void restoreStock(Map<Long, Integer> quantitiesByProduct);
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC implementation of stock writes.
+ * Checkouts and cancellations both write relative amounts (stock = stock - ? guarded by stock >= ?,
+ * stock = stock + ?), so they never overwrite each other, and rows are updated in product id order
+ * so two batches touching the same products lock them in the same order. Runs inside the caller's
+ * JPA transaction.
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<Long> reserveStock(Map<Long, Integer> quantitiesByProduct) {
+        List<Long> shortages = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantitiesByProduct).entrySet()) {
+            int quantity = entry.getValue();
+            int updated = jdbcTemplate.update("UPDATE products SET stock = stock - ?, " +
+                    "sold_count = COALESCE(sold_count, 0) + ? WHERE id = ? AND stock >= ?",
+                    quantity, quantity, entry.getKey(), quantity);
+            if (updated == 0) {
+                shortages.add(entry.getKey());
+            }
+        }
+        return shortages;
+    }
+    
+    @Override
+    public void restoreStock(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> args = new ArrayList<>(quantitiesByProduct.size());
+        new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) ->
+                args.add(new Object[] {quantity, quantity, productId}));
+        
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ?, " +
+                "sold_count = GREATEST(COALESCE(sold_count, 0) - ?, 0) WHERE id = ?", args);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.RateLimitBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String>, RateLimitLeaseRepository {
+    
+    @Modifying
+    @Query("DELETE FROM RateLimitBucket b WHERE b.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.repository;
+
+import java.time.LocalDateTime;
+
+// Token leases from shared rate-limit buckets over plain JDBC, mixed into RateLimitBucketRepository
+public interface RateLimitLeaseRepository {
+    
+    // Take up to requested tokens from the bucket's window (creating or resetting the row as needed);
+    // returns the tokens granted, 0 when the window is used up (must run inside a transaction)
+    int acquire(String bucketKey, long windowStart, int capacity, int requested, LocalDateTime expiresAt);
+}
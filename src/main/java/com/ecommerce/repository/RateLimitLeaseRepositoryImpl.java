@@ -0,0 +1,55 @@
+package com.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC implementation of rate-limit leases.
+ * Plain SELECT ... FOR UPDATE / INSERT / UPDATE, so it runs unchanged on MySQL and embedded databases.
+ * A concurrent first insert of the same key fails with DuplicateKeyException (or, on MySQL, a deadlock
+ * between the two gap-locked inserts); the caller retries.
+ */
+public class RateLimitLeaseRepositoryImpl implements RateLimitLeaseRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public int acquire(String bucketKey, long windowStart, int capacity, int requested, LocalDateTime expiresAt) {
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT window_start, consumed FROM rate_limit_buckets WHERE bucket_key = ? FOR UPDATE",
+                (rs, rowNum) -> new long[] {rs.getLong("window_start"), rs.getLong("consumed")},
+                bucketKey);
+        
+        if (rows.isEmpty()) {
+            int granted = Math.min(requested, capacity);
+            jdbcTemplate.update(
+                    "INSERT INTO rate_limit_buckets (bucket_key, window_start, consumed, expires_at) VALUES (?, ?, ?, ?)",
+                    bucketKey, windowStart, granted, expiresAt);
+            return granted;
+        }
+        
+        long storedWindow = rows.get(0)[0];
+        long consumed = rows.get(0)[1];
+        
+        // A node whose clock runs behind keeps counting into the newer window
+        if (storedWindow >= windowStart) {
+            int granted = (int) Math.max(0, Math.min(requested, capacity - consumed));
+            if (granted > 0) {
+                jdbcTemplate.update("UPDATE rate_limit_buckets SET consumed = consumed + ? WHERE bucket_key = ?",
+                        granted, bucketKey);
+            }
+            return granted;
+        }
+        
+        // The stored window is over: start the new one
+        int granted = Math.min(requested, capacity);
+        jdbcTemplate.update(
+                "UPDATE rate_limit_buckets SET window_start = ?, consumed = ?, expires_at = ? WHERE bucket_key = ?",
+                windowStart, granted, expiresAt, bucketKey);
+        return granted;
+    }
+}
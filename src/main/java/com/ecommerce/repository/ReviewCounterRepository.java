@@ -0,0 +1,10 @@
+package com.ecommerce.repository;
+
+import java.util.Map;
+
+// Batched review counter writes over plain JDBC, mixed into ReviewRepository
+public interface ReviewCounterRepository {
+    
+    // Add {helpful, notHelpful} deltas per review id in one batch
+    void addVoteCounts(Map<Long, long[]> deltasByReview);
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC implementation of review counter writes.
+ * Increments are relative and applied in review id order, so concurrent flushes from several
+ * nodes neither overwrite each other nor deadlock.
+ */
+public class ReviewCounterRepositoryImpl implements ReviewCounterRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void addVoteCounts(Map<Long, long[]> deltasByReview) {
+        if (deltasByReview.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> args = new ArrayList<>(deltasByReview.size());
+        new TreeMap<>(deltasByReview).forEach((reviewId, deltas) ->
+                args.add(new Object[] {deltas[0], deltas[1], reviewId}));
+        
+        jdbcTemplate.batchUpdate("UPDATE reviews SET " +
+                "helpful_count = COALESCE(helpful_count, 0) + ?, " +
+                "not_helpful_count = COALESCE(not_helpful_count, 0) + ? WHERE id = ?", args);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Review;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Set-based review moderation writes over plain JDBC, mixed into ReviewRepository
+public interface ReviewModerationRepository {
+    
+    // Lock and read the current state of the given reviews (must run inside a transaction)
+    List<ModerationState> lockStates(Collection<Long> reviewIds);
+    
+    // Move every listed review not already in toStatus to toStatus in one statement; returns rows changed
+    int updateStatus(Collection<Long> reviewIds, Review.ReviewStatus toStatus, LocalDateTime now);
+    
+    // Columns that feed the rating aggregates, without loading the Review entity
+    @Data
+    class ModerationState {
+        private Long id;
+        private Long productId;
+        private Review.ReviewStatus status;
+        private int rating;
+        private boolean verified;
+        private boolean withImages;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Review;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementation of bulk moderation writes.
+ * Runs inside the caller's JPA transaction (JpaTransactionManager exposes its connection to JdbcTemplate).
+ */
+public class ReviewModerationRepositoryImpl implements ReviewModerationRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public List<ModerationState> lockStates(Collection<Long> reviewIds) {
+        if (reviewIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        String sql = "SELECT r.id, r.product_id, r.status, r.rating, r.verified_purchase, " +
+                "COALESCE(r.has_images, EXISTS (SELECT 1 FROM review_images i WHERE i.review_id = r.id)) AS with_images " +
+                "FROM reviews r WHERE r.id IN (" + placeholders(reviewIds.size()) + ") " +
+                "ORDER BY r.id FOR UPDATE";
+        
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            ModerationState state = new ModerationState();
+            state.setId(rs.getLong("id"));
+            state.setProductId(rs.getLong("product_id"));
+            state.setStatus(Review.ReviewStatus.valueOf(rs.getString("status")));
+            state.setRating(rs.getInt("rating"));
+            state.setVerified(rs.getBoolean("verified_purchase"));
+            state.setWithImages(rs.getBoolean("with_images"));
+            return state;
+        }, reviewIds.toArray());
+    }
+    
+    @Override
+    public int updateStatus(Collection<Long> reviewIds, Review.ReviewStatus toStatus, LocalDateTime now) {
+        if (reviewIds.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "UPDATE reviews SET status = ?, updated_at = ? " +
+                "WHERE status <> ? AND id IN (" + placeholders(reviewIds.size()) + ")";
+        
+        List<Object> args = new ArrayList<>(reviewIds.size() + 3);
+        args.add(toStatus.name());
+        args.add(now);
+        args.add(toStatus.name());
+        args.addAll(reviewIds);
+        
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
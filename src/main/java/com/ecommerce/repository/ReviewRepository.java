@@ -1,24 +1,47 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ReviewListItem;
 import com.ecommerce.model.Review;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, ReviewCounterRepository, ReviewModerationRepository {
+    
+    // Listing projection: review columns with user and product names in one query
+    String LIST_ITEM_SELECT = "SELECT new com.ecommerce.dto.ReviewListItem(r.id, u.id, u.name, p.id, p.name, " +
+            "r.rating, r.title, r.comment, r.verifiedPurchase, r.hasImages, r.helpfulCount, r.notHelpfulCount, " +
+            "r.status, r.adminResponse, r.adminResponseAt, r.createdAt, r.updatedAt) " +
+            "FROM Review r JOIN r.user u JOIN r.product p ";
+    
+    // Lock the review row; rating aggregate deltas are computed from the state read here
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.id = :id")
+    Optional<Review> findByIdForUpdate(@Param("id") Long id);
     
     // Find all approved reviews for a product
-    Page<Review> findByProductIdAndStatus(Long productId, Review.ReviewStatus status, Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = :status",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = :status")
+    Page<ReviewListItem> findListItemsByProduct(@Param("productId") Long productId,
+                                                @Param("status") Review.ReviewStatus status,
+                                                Pageable pageable);
     
     // Find all reviews by user
-    Page<Review> findByUserId(Long userId, Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + "WHERE u.id = :userId",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.user.id = :userId")
+    Page<ReviewListItem> findListItemsByUser(@Param("userId") Long userId, Pageable pageable);
     
     // Find review by user and product
     Optional<Review> findByUserIdAndProductId(Long userId, Long productId);
@@ -27,10 +50,56 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     boolean existsByUserIdAndProductId(Long userId, Long productId);
     
     // Find all reviews by rating
-    Page<Review> findByProductIdAndStatusAndRating(Long productId, Review.ReviewStatus status, Integer rating, Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = :status AND r.rating = :rating",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = :status AND r.rating = :rating")
+    Page<ReviewListItem> findListItemsByProductAndRating(@Param("productId") Long productId,
+                                                         @Param("status") Review.ReviewStatus status,
+                                                         @Param("rating") Integer rating,
+                                                         Pageable pageable);
     
     // Find reviews pending moderation
-    Page<Review> findByStatus(Review.ReviewStatus status, Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + "WHERE r.status = :status",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.status = :status")
+    Page<ReviewListItem> findListItemsByStatus(@Param("status") Review.ReviewStatus status, Pageable pageable);
+    
+    // Reviews in a status, first keyset page (newest first)
+    @Query(LIST_ITEM_SELECT + "WHERE r.status = :status ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewListItem> findListItemsByStatusFirstPage(@Param("status") Review.ReviewStatus status, Pageable pageable);
+    
+    // Reviews in a status, keyset page after (createdAt, id)
+    @Query(LIST_ITEM_SELECT + "WHERE r.status = :status " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewListItem> findListItemsByStatusPageAfter(@Param("status") Review.ReviewStatus status,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+    
+    // Listing rows by id (order is up to the caller)
+    @Query(LIST_ITEM_SELECT + "WHERE r.id IN :ids")
+    List<ReviewListItem> findListItemsByIds(@Param("ids") Collection<Long> ids);
+    
+    // Image URLs of a page of reviews: reviewId, imageUrl
+    @Query("SELECT r.id, i FROM Review r JOIN r.images i WHERE r.id IN :ids")
+    List<Object[]> findImagesByReviewIds(@Param("ids") Collection<Long> ids);
+    
+    // Fill has_images for up to limit rows written before the column existed; returns rows updated
+    @Modifying
+    @Query(value = "UPDATE reviews r SET r.has_images = EXISTS (SELECT 1 FROM review_images i WHERE i.review_id = r.id) " +
+           "WHERE r.has_images IS NULL LIMIT :limit", nativeQuery = true)
+    int backfillHasImages(@Param("limit") int limit);
+    
+    // Keyset page of pending review ids matching a bulk moderation filter (null filters match all)
+    @Query("SELECT r.id FROM Review r WHERE r.status = 'PENDING' AND r.id > :afterId " +
+           "AND (:productId IS NULL OR r.product.id = :productId) " +
+           "AND (:rating IS NULL OR r.rating = :rating) " +
+           "AND (:createdBefore IS NULL OR r.createdAt < :createdBefore) " +
+           "ORDER BY r.id")
+    List<Long> findPendingIdsAfter(@Param("afterId") Long afterId,
+                                   @Param("productId") Long productId,
+                                   @Param("rating") Integer rating,
+                                   @Param("createdBefore") LocalDateTime createdBefore,
+                                   Pageable pageable);
     
     // Count reviews by product
     Long countByProductIdAndStatus(Long productId, Review.ReviewStatus status);
@@ -44,19 +113,31 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Object[]> getRatingDistributionByProductId(@Param("productId") Long productId);
     
     // Find verified purchase reviews
-    Page<Review> findByProductIdAndStatusAndVerifiedPurchase(Long productId, Review.ReviewStatus status, Boolean verifiedPurchase, Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = :status AND r.verifiedPurchase = true",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = :status AND r.verifiedPurchase = true")
+    Page<ReviewListItem> findVerifiedListItemsByProduct(@Param("productId") Long productId,
+                                                        @Param("status") Review.ReviewStatus status,
+                                                        Pageable pageable);
     
     // Find most helpful reviews
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' ORDER BY r.helpfulCount DESC")
-    List<Review> findMostHelpfulByProductId(@Param("productId") Long productId, Pageable pageable);
+    @Query(LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = 'APPROVED' ORDER BY r.helpfulCount DESC")
+    List<ReviewListItem> findMostHelpfulByProductId(@Param("productId") Long productId, Pageable pageable);
     
-    // Find reviews with images
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' AND SIZE(r.images) > 0")
-    Page<Review> findByProductIdWithImages(@Param("productId") Long productId, Pageable pageable);
+    // Find reviews with images (maintained flag, no subquery over review_images)
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = 'APPROVED' AND r.hasImages = true",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' AND r.hasImages = true")
+    Page<ReviewListItem> findByProductIdWithImages(@Param("productId") Long productId, Pageable pageable);
     
     // Search reviews by keyword
-    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.id = :productId AND r.status = 'APPROVED' " +
+           "AND (LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(r.comment) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+           countQuery = "SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
            "AND (LOWER(r.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(r.comment) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Review> searchReviewsByProductId(@Param("productId") Long productId, @Param("keyword") String keyword, Pageable pageable);
+    Page<ReviewListItem> searchReviewsByProductId(@Param("productId") Long productId, @Param("keyword") String keyword, Pageable pageable);
+    
+    // Text of a product's approved reviews for the search index: id, title, comment, createdAt
+    @Query("SELECT r.id, r.title, r.comment, r.createdAt FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED'")
+    List<Object[]> findSearchDocumentsByProductId(@Param("productId") Long productId);
 }
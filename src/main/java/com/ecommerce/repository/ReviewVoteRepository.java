@@ -0,0 +1,23 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ReviewVote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReviewVoteRepository extends JpaRepository<ReviewVote, ReviewVote.Key> {
+    
+    // Record a vote unless the user already voted on the review; returns 1 if recorded, 0 if a duplicate
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO review_votes (review_id, user_id, helpful, created_at) " +
+           "VALUES (:reviewId, :userId, :helpful, :createdAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("reviewId") Long reviewId,
+                       @Param("userId") Long userId,
+                       @Param("helpful") boolean helpful,
+                       @Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.RevokedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, Long> {
+    
+    // Accounts deleted after the given time
+    List<RevokedUser> findByRevokedAtAfter(LocalDateTime since);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedUser r WHERE r.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.SalesRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Set-based sales_rollups writes over plain JDBC, mixed into SalesRollupRepository
+public interface SalesRollupBatchRepository {
+    
+    // Add the deltas to their buckets in one batch (rows are created on first use)
+    void applyDeltas(List<RollupDelta> deltas);
+    
+    // Replace every rollup bucket in [from, to) with aggregates recomputed from live and archived orders
+    void rebuildRange(LocalDateTime from, LocalDateTime to);
+    
+    @Data
+    @AllArgsConstructor
+    class RollupDelta {
+        private SalesRollup.Granularity granularity;
+        private SalesRollup.Dimension dimension;
+        private String dimensionKey;
+        private LocalDateTime bucketStart;
+        private long orders;
+        private long units;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.SalesRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of sales rollup writes.
+ * Incremental deltas are upserted in one batch; rebuilds recompute a range with INSERT ... SELECT
+ * over live and archived orders whose payment status is PAID, matching the incremental path.
+ */
+public class SalesRollupBatchRepositoryImpl implements SalesRollupBatchRepository {
+    
+    private static final String UPSERT =
+            "INSERT INTO sales_rollups (granularity, dimension, dimension_key, bucket_start, order_count, units, " +
+            "revenue, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, NOW()) ON DUPLICATE KEY UPDATE " +
+            "order_count = order_count + VALUES(order_count), units = units + VALUES(units), " +
+            "revenue = revenue + VALUES(revenue), updated_at = NOW()";
+    
+    // Order lines in [from, to); parameters: from, to, from, to
+    private static final String LINES =
+            "(SELECT o.id AS order_id, o.created_at, i.product_id, p.category_id, i.quantity, i.subtotal " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id JOIN products p ON p.id = i.product_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? AND o.payment_status = 'PAID' " +
+            "UNION ALL " +
+            "SELECT o.id, o.created_at, i.product_id, p.category_id, i.quantity, i.subtotal " +
+            "FROM archived_orders o JOIN archived_order_items i ON i.order_id = o.id " +
+            "JOIN products p ON p.id = i.product_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? AND o.payment_status = 'PAID') l";
+    
+    // Orders in [from, to) with their unit count; parameters: from, to, from, to
+    private static final String ORDERS =
+            "(SELECT o.created_at, o.payment_method, o.total_amount, " +
+            "(SELECT COALESCE(SUM(i.quantity), 0) FROM order_items i WHERE i.order_id = o.id) AS units " +
+            "FROM orders o WHERE o.created_at >= ? AND o.created_at < ? AND o.payment_status = 'PAID' " +
+            "UNION ALL " +
+            "SELECT o.created_at, o.payment_method, o.total_amount, " +
+            "(SELECT COALESCE(SUM(i.quantity), 0) FROM archived_order_items i WHERE i.order_id = o.id) " +
+            "FROM archived_orders o WHERE o.created_at >= ? AND o.created_at < ? AND o.payment_status = 'PAID') t";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void applyDeltas(List<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (RollupDelta delta : deltas) {
+            args.add(new Object[] {
+                    delta.getGranularity().name(),
+                    delta.getDimension().name(),
+                    delta.getDimensionKey(),
+                    delta.getBucketStart(),
+                    delta.getOrders(),
+                    delta.getUnits(),
+                    delta.getRevenue()
+            });
+        }
+        
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+    
+    @Override
+    public void rebuildRange(LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.update("DELETE FROM sales_rollups WHERE bucket_start >= ? AND bucket_start < ?", from, to);
+        
+        Object[] range = {from, to, from, to};
+        
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            String lineBucket = bucket(granularity, "l.created_at");
+            String orderBucket = bucket(granularity, "t.created_at");
+            
+            jdbcTemplate.update(insertSelect(granularity, SalesRollup.Dimension.PRODUCT,
+                    "CAST(l.product_id AS CHAR)", lineBucket,
+                    "COUNT(DISTINCT l.order_id), SUM(l.quantity), SUM(l.subtotal)",
+                    LINES, "l.product_id"), range);
+            
+            jdbcTemplate.update(insertSelect(granularity, SalesRollup.Dimension.CATEGORY,
+                    "CAST(l.category_id AS CHAR)", lineBucket,
+                    "COUNT(DISTINCT l.order_id), SUM(l.quantity), SUM(l.subtotal)",
+                    LINES, "l.category_id"), range);
+            
+            jdbcTemplate.update(insertSelect(granularity, SalesRollup.Dimension.PAYMENT_METHOD,
+                    "COALESCE(t.payment_method, 'UNKNOWN')", orderBucket,
+                    "COUNT(*), SUM(t.units), SUM(t.total_amount)",
+                    ORDERS, "t.payment_method"), range);
+        }
+    }
+    
+    private static String insertSelect(SalesRollup.Granularity granularity, SalesRollup.Dimension dimension,
+                                       String keyExpression, String bucketExpression, String measures,
+                                       String source, String groupColumn) {
+        return "INSERT INTO sales_rollups (granularity, dimension, dimension_key, bucket_start, order_count, " +
+                "units, revenue, updated_at) " +
+                "SELECT '" + granularity.name() + "', '" + dimension.name() + "', " + keyExpression + ", " +
+                bucketExpression + ", " + measures + ", NOW() FROM " + source +
+                " GROUP BY " + groupColumn + ", " + bucketExpression;
+    }
+    
+    private static String bucket(SalesRollup.Granularity granularity, String column) {
+        return granularity == SalesRollup.Granularity.HOUR
+                ? "DATE_FORMAT(" + column + ", '%Y-%m-%d %H:00:00')"
+                : "CAST(DATE(" + column + ") AS DATETIME)";
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.SalesRollupEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SalesRollupEventRepository extends JpaRepository<SalesRollupEvent, String> {
+    
+    @Modifying
+    @Query("DELETE FROM SalesRollupEvent e WHERE e.appliedAt < :cutoff")
+    int deleteAppliedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.SalesBreakdown;
+import com.ecommerce.dto.SalesPoint;
+import com.ecommerce.model.SalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long>, SalesRollupBatchRepository {
+    
+    // Totals per bucket, summed over the keys of one dimension
+    @Query("SELECT new com.ecommerce.dto.SalesPoint(r.bucketStart, SUM(r.orderCount), SUM(r.units), SUM(r.revenue)) " +
+           "FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<SalesPoint> findSeries(@Param("granularity") SalesRollup.Granularity granularity,
+                                @Param("dimension") SalesRollup.Dimension dimension,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+    
+    // Totals per key of one dimension over a range, highest revenue first
+    @Query("SELECT new com.ecommerce.dto.SalesBreakdown(r.dimensionKey, SUM(r.orderCount), SUM(r.units), SUM(r.revenue)) " +
+           "FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.dimensionKey ORDER BY SUM(r.revenue) DESC")
+    List<SalesBreakdown> findBreakdown(@Param("granularity") SalesRollup.Granularity granularity,
+                                       @Param("dimension") SalesRollup.Dimension dimension,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+}
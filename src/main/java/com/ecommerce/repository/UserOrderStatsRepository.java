@@ -0,0 +1,77 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.UserOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+    
+    // Atomically add deltas to a user's counters (no read-modify-write)
+    @Modifying
+    @Query(value = "UPDATE user_order_stats SET " +
+           "total_orders = total_orders + :total, " +
+           "pending_orders = pending_orders + :pending, " +
+           "confirmed_orders = confirmed_orders + :confirmed, " +
+           "processing_orders = processing_orders + :processing, " +
+           "shipped_orders = shipped_orders + :shipped, " +
+           "delivered_orders = delivered_orders + :delivered, " +
+           "cancelled_orders = cancelled_orders + :cancelled, " +
+           "refunded_orders = refunded_orders + :refunded, " +
+           "total_spent = total_spent + :spent, " +
+           "last_order_at = COALESCE(GREATEST(last_order_at, :lastOrderAt), last_order_at, :lastOrderAt), " +
+           "updated_at = NOW() " +
+           "WHERE user_id = :userId", nativeQuery = true)
+    int addDeltas(@Param("userId") Long userId,
+                  @Param("total") long total,
+                  @Param("pending") long pending,
+                  @Param("confirmed") long confirmed,
+                  @Param("processing") long processing,
+                  @Param("shipped") long shipped,
+                  @Param("delivered") long delivered,
+                  @Param("cancelled") long cancelled,
+                  @Param("refunded") long refunded,
+                  @Param("spent") BigDecimal spent,
+                  @Param("lastOrderAt") LocalDateTime lastOrderAt);
+    
+    // Create an all-zero row unless one exists; returns 1 when this call created it. The new row stays
+    // locked until commit, so a concurrent first writer waits and then sees it
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_order_stats (user_id, total_orders, pending_orders, confirmed_orders, " +
+           "processing_orders, shipped_orders, delivered_orders, cancelled_orders, refunded_orders, " +
+           "total_spent, updated_at) VALUES (:userId, 0, 0, 0, 0, 0, 0, 0, 0, 0, NOW())",
+           nativeQuery = true)
+    int insertEmpty(@Param("userId") Long userId);
+    
+    // Insert or overwrite a user's counters with recomputed values
+    @Modifying
+    @Query(value = "INSERT INTO user_order_stats (user_id, total_orders, pending_orders, confirmed_orders, " +
+           "processing_orders, shipped_orders, delivered_orders, cancelled_orders, refunded_orders, " +
+           "total_spent, last_order_at, updated_at) " +
+           "VALUES (:userId, :total, :pending, :confirmed, :processing, :shipped, :delivered, " +
+           ":cancelled, :refunded, :spent, :lastOrderAt, NOW()) " +
+           "ON DUPLICATE KEY UPDATE " +
+           "total_orders = VALUES(total_orders), pending_orders = VALUES(pending_orders), " +
+           "confirmed_orders = VALUES(confirmed_orders), processing_orders = VALUES(processing_orders), " +
+           "shipped_orders = VALUES(shipped_orders), delivered_orders = VALUES(delivered_orders), " +
+           "cancelled_orders = VALUES(cancelled_orders), refunded_orders = VALUES(refunded_orders), " +
+           "total_spent = VALUES(total_spent), last_order_at = VALUES(last_order_at), updated_at = NOW()",
+           nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("total") long total,
+               @Param("pending") long pending,
+               @Param("confirmed") long confirmed,
+               @Param("processing") long processing,
+               @Param("shipped") long shipped,
+               @Param("delivered") long delivered,
+               @Param("cancelled") long cancelled,
+               @Param("refunded") long refunded,
+               @Param("spent") BigDecimal spent,
+               @Param("lastOrderAt") LocalDateTime lastOrderAt);
+}
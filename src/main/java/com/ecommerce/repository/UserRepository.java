@@ -2,8 +2,12 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +18,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
     
     Optional<User> findByOauthProviderAndOauthId(String provider, String oauthId);
+    
+    // Security versions bumped after the given time: id, securityVersion, securityVersionChangedAt
+    @Query("SELECT u.id, u.securityVersion, u.securityVersionChangedAt FROM User u WHERE u.securityVersionChangedAt > :since")
+    List<Object[]> findSecurityVersionsChangedSince(@Param("since") LocalDateTime since);
 }
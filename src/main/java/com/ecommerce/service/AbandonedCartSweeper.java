@@ -0,0 +1,207 @@
+package com.ecommerce.service;
+
+import com.ecommerce.event.CartAbandonedEvent;
+import com.ecommerce.model.AbandonedCartItem;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.repository.AbandonedCartItemRepository;
+import com.ecommerce.repository.CartItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reclaims carts whose items have all been idle longer than the configured age.
+ * Carts are walked by user id (keyset) and each chunk is deleted, or archived and deleted,
+ * in its own short transaction so no sweep holds locks on cart_items for long.
+ */
+@Service
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Value("${app.cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cart.sweeper.max-idle-days:30}")
+    private long maxIdleDays;
+
+    @Value("${app.cart.sweeper.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.cart.sweeper.archive:false}")
+    private boolean archive;
+
+    @Value("${app.cart.sweeper.emit-events:false}")
+    private boolean emitEvents;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private AbandonedCartItemRepository abandonedCartItemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Metrics
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong totalRowsReclaimed = new AtomicLong();
+    private final AtomicLong totalCartsReclaimed = new AtomicLong();
+    private volatile long lastRowsReclaimed;
+    private volatile long lastSweepDurationMs;
+    private volatile LocalDateTime lastSweepAt;
+
+    @Scheduled(fixedDelayString = "${app.cart.sweeper.interval-ms:3600000}",
+               initialDelayString = "${app.cart.sweeper.initial-delay-ms:300000}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    // Run one full sweep; returns the number of cart rows reclaimed (0 if a sweep is already running)
+    public long sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxIdleDays);
+        long rows = 0;
+        long carts = 0;
+
+        try {
+            Long afterUserId = 0L;
+
+            while (true) {
+                List<Long> userIds = cartItemRepository.findAbandonedCartUserIds(
+                        afterUserId, cutoff, PageRequest.of(0, chunkSize));
+
+                if (userIds.isEmpty()) {
+                    break;
+                }
+
+                Integer reclaimed = transactionTemplate.execute(status -> reclaimChunk(userIds, cutoff));
+                rows += reclaimed != null ? reclaimed : 0;
+                carts += userIds.size();
+                afterUserId = userIds.get(userIds.size() - 1);
+
+                if (userIds.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+
+            sweepCount.incrementAndGet();
+            totalRowsReclaimed.addAndGet(rows);
+            totalCartsReclaimed.addAndGet(carts);
+            lastRowsReclaimed = rows;
+            lastSweepDurationMs = duration;
+            lastSweepAt = LocalDateTime.now();
+            running.set(false);
+
+            log.info("Abandoned cart sweep reclaimed {} rows from {} carts in {} ms", rows, carts, duration);
+        }
+
+        return rows;
+    }
+
+    public SweeperStats getStats() {
+        return new SweeperStats(
+                sweepCount.get(),
+                totalRowsReclaimed.get(),
+                totalCartsReclaimed.get(),
+                lastRowsReclaimed,
+                lastSweepDurationMs,
+                lastSweepAt,
+                running.get()
+        );
+    }
+
+    // Reclaim one chunk of carts (runs inside its own transaction)
+    private int reclaimChunk(List<Long> userIds, LocalDateTime cutoff) {
+        if (archive || emitEvents) {
+            List<CartItem> staleItems = cartItemRepository.findStaleByUserIds(userIds, cutoff);
+
+            if (archive) {
+                archiveItems(staleItems);
+            }
+
+            if (emitEvents) {
+                publishAbandonedEvents(staleItems);
+            }
+        }
+
+        return cartItemRepository.deleteStaleByUserIds(userIds, cutoff);
+    }
+
+    private void archiveItems(List<CartItem> staleItems) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AbandonedCartItem> archived = new ArrayList<>(staleItems.size());
+
+        for (CartItem item : staleItems) {
+            AbandonedCartItem copy = new AbandonedCartItem();
+            copy.setUserId(item.getUser().getId());
+            copy.setProductId(item.getProduct().getId());
+            copy.setQuantity(item.getQuantity());
+            copy.setPriceAtAddition(item.getPriceAtAddition());
+            copy.setAddedAt(item.getAddedAt());
+            copy.setLastActivityAt(item.getUpdatedAt() != null ? item.getUpdatedAt() : item.getAddedAt());
+            copy.setArchivedAt(now);
+            archived.add(copy);
+        }
+
+        abandonedCartItemRepository.saveAll(archived);
+    }
+
+    private void publishAbandonedEvents(List<CartItem> staleItems) {
+        Map<Long, CartAbandonedEvent> events = new LinkedHashMap<>();
+
+        for (CartItem item : staleItems) {
+            LocalDateTime lastActivity = item.getUpdatedAt() != null ? item.getUpdatedAt() : item.getAddedAt();
+            CartAbandonedEvent event = events.computeIfAbsent(item.getUser().getId(),
+                    userId -> new CartAbandonedEvent(userId, 0, lastActivity));
+
+            event.setItemCount(event.getItemCount() + 1);
+            if (lastActivity != null && (event.getLastActivityAt() == null
+                    || lastActivity.isAfter(event.getLastActivityAt()))) {
+                event.setLastActivityAt(lastActivity);
+            }
+        }
+
+        events.values().forEach(eventPublisher::publishEvent);
+    }
+
+    // Inner class for sweeper metrics
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class SweeperStats {
+        private Long sweepCount;
+        private Long totalRowsReclaimed;
+        private Long totalCartsReclaimed;
+        private Long lastRowsReclaimed;
+        private Long lastSweepDurationMs;
+        private LocalDateTime lastSweepAt;
+        private Boolean running;
+    }
+}
@@ -48,6 +48,12 @@ public class AuthService {
     @Autowired
     private PasswordResetTokenRepository passwordResetTokenRepository;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    @Autowired
+    private SecurityVersionService securityVersionService;
+    
     private static final int MAX_FAILED_ATTEMPTS = 5;
     
     @Transactional
@@ -91,13 +97,14 @@ public class AuthService {
         emailService.sendVerificationEmail(savedUser.getEmail(), verificationToken);
         
         // Generate tokens
-        String accessToken = jwtUtil.generateToken(savedUser.getEmail());
+        String accessToken = jwtUtil.generateAccessToken(savedUser);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(savedUser);
         
         return new AuthResponse(accessToken, refreshToken.getToken(), savedUser);
     }
     
-    @Transactional
+    // Failed attempts and the lock must be stored even though the failure is reported by throwing
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
     public AuthResponse login(LoginRequest loginRequest) {
         User user = userRepository.findByEmail(loginRequest.getEmail().toLowerCase().trim())
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
@@ -122,9 +129,8 @@ public class AuthService {
                     )
             );
             
-            // Reset failed attempts on successful login
+            // Reset failed attempts once the password is verified
             user.resetFailedAttempts();
-            user.setLastLogin(LocalDateTime.now());
             userRepository.save(user);
             
             // Check if 2FA is enabled
@@ -148,8 +154,11 @@ public class AuthService {
                 }
             }
             
+            user.setLastLogin(LocalDateTime.now());
+            userRepository.save(user);
+            
             // Generate tokens
-            String accessToken = jwtUtil.generateToken(user.getEmail());
+            String accessToken = jwtUtil.generateAccessToken(user);
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
             
             return new AuthResponse(accessToken, refreshToken.getToken(), user);
@@ -160,6 +169,8 @@ public class AuthService {
             
             if (user.getFailedLoginAttempts() >= MAX_FAILED_ATTEMPTS) {
                 user.lockAccount();
+                securityVersionService.bump(user);
+                userPrincipalCache.evict(user.getEmail());
                 emailService.sendAccountLockedEmail(user.getEmail());
             }
             
@@ -177,7 +188,7 @@ public class AuthService {
         refreshTokenService.verifyExpiration(refreshToken);
         
         User user = refreshToken.getUser();
-        String newAccessToken = jwtUtil.generateToken(user.getEmail());
+        String newAccessToken = jwtUtil.generateAccessToken(user);
         
         AuthResponse response = new AuthResponse();
         response.setAccessToken(newAccessToken);
@@ -195,6 +206,17 @@ public class AuthService {
         refreshTokenService.revokeToken(refreshToken);
     }
     
+    // Sign the user out on every device: drop all refresh tokens and invalidate issued access tokens
+    @Transactional
+    public void logoutAll(String email) {
+        User user = getCurrentUser(email);
+        
+        refreshTokenService.deleteByUser(user);
+        securityVersionService.bump(user);
+        userRepository.save(user);
+        userPrincipalCache.evict(user.getEmail());
+    }
+    
     @Transactional
     public void verifyEmail(String token) {
         EmailVerificationToken verificationToken = emailVerificationTokenRepository.findByToken(token)
@@ -282,7 +304,9 @@ public class AuthService {
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.resetFailedAttempts(); // Unlock account if locked
+        securityVersionService.bump(user);
         userRepository.save(user);
+        userPrincipalCache.evict(user.getEmail());
         
         resetToken.setUsed(true);
         passwordResetTokenRepository.save(resetToken);
@@ -0,0 +1,88 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal placed in the SecurityContext for authenticated requests.
+ * Carries the user id, role and account flags so controllers need no user lookup; immutable,
+ * so one instance can be cached and shared across requests.
+ */
+public final class AuthenticatedUser implements UserDetails {
+    
+    private final Long userId;
+    private final String email;
+    private final String password;
+    private final User.Role role;
+    private final boolean enabled;
+    private final boolean locked;
+    private final Collection<? extends GrantedAuthority> authorities;
+    
+    public AuthenticatedUser(Long userId, String email, String password, User.Role role, boolean enabled, boolean locked) {
+        this.userId = userId;
+        this.email = email;
+        this.password = password != null ? password : "";
+        this.role = role;
+        this.enabled = enabled;
+        this.locked = locked;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole(),
+                Boolean.TRUE.equals(user.getEnabled()),
+                user.isAccountLocked());
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public User.Role getRole() {
+        return role;
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public String getPassword() {
+        return password;
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return !locked;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+}
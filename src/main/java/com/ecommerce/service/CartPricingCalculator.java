@@ -0,0 +1,130 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.util.Money;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Prices a cart in a single pass over long minor units.
+ * Shared by CartService (cart summary) and OrderService (checkout totals) so both
+ * compute subtotals and discounts the same way, without per-line BigDecimal arithmetic.
+ */
+@Component
+public class CartPricingCalculator {
+
+    public CartPricing price(List<CartItem> cartItems) {
+        int size = cartItems.size();
+        long[] lineSubtotals = new long[size];
+        long[] lineDiscounts = new long[size];
+        long[] lineMarkdowns = new long[size];
+
+        long subtotal = 0L;
+        long discount = 0L;
+        int totalQuantity = 0;
+        boolean hasUnavailableItems = false;
+
+        for (int i = 0; i < size; i++) {
+            CartItem item = cartItems.get(i);
+            Product product = item.getProduct();
+            int quantity = item.getQuantity();
+
+            long lineSubtotal = Money.times(Money.toMinor(item.getPriceAtAddition()), quantity);
+            lineSubtotals[i] = lineSubtotal;
+            subtotal = Math.addExact(subtotal, lineSubtotal);
+            totalQuantity += quantity;
+
+            if (product.hasDiscount()) {
+                long regularPrice = Money.toMinor(product.getPrice());
+                long discountPrice = Money.toMinor(product.getDiscountPrice());
+
+                // Savings against the regular price, based on the price the item was added at
+                lineDiscounts[i] = Money.times(regularPrice, quantity) - lineSubtotal;
+                discount = Math.addExact(discount, lineDiscounts[i]);
+
+                // Per-unit markdown of the product, recorded on order items
+                lineMarkdowns[i] = Money.times(regularPrice - discountPrice, quantity);
+            }
+
+            if (item.hasStockIssue()) {
+                hasUnavailableItems = true;
+            }
+        }
+
+        return new CartPricing(lineSubtotals, lineDiscounts, lineMarkdowns,
+                subtotal, discount, totalQuantity, hasUnavailableItems);
+    }
+
+    // Result of pricing a cart; line arrays are indexed like the input list
+    public static class CartPricing {
+        private final long[] lineSubtotals;
+        private final long[] lineDiscounts;
+        private final long[] lineMarkdowns;
+        private final long subtotal;
+        private final long discount;
+        private final int totalQuantity;
+        private final boolean hasUnavailableItems;
+
+        CartPricing(long[] lineSubtotals, long[] lineDiscounts, long[] lineMarkdowns,
+                    long subtotal, long discount, int totalQuantity, boolean hasUnavailableItems) {
+            this.lineSubtotals = lineSubtotals;
+            this.lineDiscounts = lineDiscounts;
+            this.lineMarkdowns = lineMarkdowns;
+            this.subtotal = subtotal;
+            this.discount = discount;
+            this.totalQuantity = totalQuantity;
+            this.hasUnavailableItems = hasUnavailableItems;
+        }
+
+        public BigDecimal getLineSubtotal(int index) {
+            return Money.toBigDecimal(lineSubtotals[index]);
+        }
+
+        public long getLineSubtotalMinor(int index) {
+            return lineSubtotals[index];
+        }
+
+        public BigDecimal getLineDiscount(int index) {
+            return Money.toBigDecimal(lineDiscounts[index]);
+        }
+
+        public boolean hasLineMarkdown(int index) {
+            return lineMarkdowns[index] != 0L;
+        }
+
+        public BigDecimal getLineMarkdown(int index) {
+            return Money.toBigDecimal(lineMarkdowns[index]);
+        }
+
+        public int getLineCount() {
+            return lineSubtotals.length;
+        }
+
+        public BigDecimal getSubtotal() {
+            return Money.toBigDecimal(subtotal);
+        }
+
+        public long getSubtotalMinor() {
+            return subtotal;
+        }
+
+        public BigDecimal getDiscount() {
+            return Money.toBigDecimal(discount);
+        }
+
+        public long getDiscountMinor() {
+            return discount;
+        }
+
+        public int getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public boolean hasUnavailableItems() {
+            return hasUnavailableItems;
+        }
+    }
+}
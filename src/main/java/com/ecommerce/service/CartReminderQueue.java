@@ -0,0 +1,67 @@
+package com.ecommerce.service;
+
+import com.ecommerce.event.CartAbandonedEvent;
+import com.ecommerce.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of abandoned cart reminders.
+ * Filled from CartAbandonedEvent once the sweeper chunk commits and drained on a schedule,
+ * so reminder emails never run inside the sweep transaction.
+ */
+@Component
+public class CartReminderQueue {
+    
+    @Value("${app.cart.reminders.batch-size:50}")
+    private int batchSize;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EmailService emailService;
+    
+    private final BlockingQueue<CartAbandonedEvent> queue;
+    
+    private final AtomicLong dropped = new AtomicLong();
+    
+    public CartReminderQueue(@Value("${app.cart.reminders.capacity:10000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartAbandoned(CartAbandonedEvent event) {
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.cart.reminders.interval-ms:60000}")
+    public void drain() {
+        List<CartAbandonedEvent> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+        
+        for (CartAbandonedEvent event : batch) {
+            userRepository.findById(event.getUserId()).ifPresent(user ->
+                    emailService.sendAbandonedCartEmail(user.getEmail(), event.getItemCount()));
+        }
+    }
+    
+    public int size() {
+        return queue.size();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
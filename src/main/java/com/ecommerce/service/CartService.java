@@ -8,13 +8,14 @@ import com.ecommerce.model.User;
 import com.ecommerce.repository.CartItemRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CartService {
@@ -28,6 +29,9 @@ public class CartService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private CartPricingCalculator cartPricingCalculator;
+    
     // Get user's cart
     public CartResponse getCart(Long userId) {
         List<CartItem> cartItems = cartItemRepository.findByUserIdWithProduct(userId);
@@ -167,12 +171,16 @@ public class CartService {
     private CartResponse buildCartResponse(List<CartItem> cartItems) {
         CartResponse response = new CartResponse();
         
-        List<CartItemResponse> itemResponses = cartItems.stream()
-                .map(this::mapToItemResponse)
-                .collect(Collectors.toList());
+        // Price the whole cart once and reuse the line subtotals for the item responses
+        CartPricingCalculator.CartPricing pricing = cartPricingCalculator.price(cartItems);
+        
+        List<CartItemResponse> itemResponses = new ArrayList<>(cartItems.size());
+        for (int i = 0; i < cartItems.size(); i++) {
+            itemResponses.add(mapToItemResponse(cartItems.get(i), pricing.getLineSubtotal(i)));
+        }
         
         response.setItems(itemResponses);
-        response.setSummary(calculateSummary(cartItems));
+        response.setSummary(calculateSummary(cartItems.size(), pricing));
         
         // Add messages for unavailable items
         for (CartItem item : cartItems) {
@@ -185,7 +193,7 @@ public class CartService {
     }
     
     // Helper method to map CartItem to CartItemResponse
-    private CartItemResponse mapToItemResponse(CartItem item) {
+    private CartItemResponse mapToItemResponse(CartItem item, BigDecimal subtotal) {
         Product product = item.getProduct();
         
         CartItemResponse response = new CartItemResponse();
@@ -197,7 +205,7 @@ public class CartService {
         response.setPrice(product.getPrice());
         response.setDiscountPrice(product.getDiscountPrice());
         response.setQuantity(item.getQuantity());
-        response.setSubtotal(item.getSubtotal());
+        response.setSubtotal(subtotal);
         response.setAvailableStock(product.getStock());
         response.setInStock(product.isInStock());
         response.setProductActive(product.getActive());
@@ -217,46 +225,23 @@ public class CartService {
     }
     
     // Helper method to calculate cart summary
-    private CartResponse.CartSummary calculateSummary(List<CartItem> cartItems) {
+    private CartResponse.CartSummary calculateSummary(int totalItems, CartPricingCalculator.CartPricing pricing) {
         CartResponse.CartSummary summary = new CartResponse.CartSummary();
         
-        int totalItems = cartItems.size();
-        int totalQuantity = cartItems.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
-        
-        BigDecimal subtotal = cartItems.stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal discount = BigDecimal.ZERO;
-        // Calculate discount if products have discount prices
-        for (CartItem item : cartItems) {
-            if (item.getProduct().hasDiscount()) {
-                BigDecimal regularTotal = item.getProduct().getPrice()
-                        .multiply(BigDecimal.valueOf(item.getQuantity()));
-                BigDecimal discountedTotal = item.getSubtotal();
-                discount = discount.add(regularTotal.subtract(discountedTotal));
-            }
-        }
-        
         // For now, tax and shipping are 0 (can be calculated based on location later)
-        BigDecimal tax = BigDecimal.ZERO;
-        BigDecimal shipping = BigDecimal.ZERO;
-        
-        BigDecimal total = subtotal.add(tax).add(shipping);
+        long tax = 0L;
+        long shipping = 0L;
         
-        boolean hasUnavailableItems = cartItems.stream()
-                .anyMatch(CartItem::hasStockIssue);
+        long total = pricing.getSubtotalMinor() + tax + shipping;
         
         summary.setTotalItems(totalItems);
-        summary.setTotalQuantity(totalQuantity);
-        summary.setSubtotal(subtotal);
-        summary.setDiscount(discount);
-        summary.setTax(tax);
-        summary.setShipping(shipping);
-        summary.setTotal(total);
-        summary.setHasUnavailableItems(hasUnavailableItems);
+        summary.setTotalQuantity(pricing.getTotalQuantity());
+        summary.setSubtotal(pricing.getSubtotal());
+        summary.setDiscount(pricing.getDiscount());
+        summary.setTax(BigDecimal.ZERO);
+        summary.setShipping(BigDecimal.ZERO);
+        summary.setTotal(Money.toBigDecimal(total));
+        summary.setHasUnavailableItems(pricing.hasUnavailableItems());
         
         return summary;
     }
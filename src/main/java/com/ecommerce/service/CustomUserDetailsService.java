@@ -3,39 +3,32 @@ package com.ecommerce.service;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        AuthenticatedUser cached = userPrincipalCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
         
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword() != null ? user.getPassword() : "",
-                user.getEnabled(),
-                true,
-                true,
-                !user.isAccountLocked(),
-                getAuthorities(user)
-        );
-    }
-    
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+        AuthenticatedUser principal = AuthenticatedUser.of(user);
+        userPrincipalCache.put(principal);
+        return principal;
     }
 }
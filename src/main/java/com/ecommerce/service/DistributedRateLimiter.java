@@ -0,0 +1,188 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.RateLimitBucketRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide rate limits over a shared rate_limit_buckets table.
+ *
+ * Each bucket allows capacity tokens per fixed window aligned to the limit period, counted across
+ * all nodes. A node does not go to the database per request: it takes a small lease of tokens
+ * (app.rate-limit.distributed.lease-size, at most a tenth of the capacity) and serves requests from
+ * it, and once the database reports the window used up it rejects locally until the window ends.
+ * Tokens leased but not used by a node are lost for the window, so the limit errs on the strict side.
+ *
+ * A lease is taken on the request thread, so it runs with a short transaction timeout
+ * (app.rate-limit.distributed.acquire-timeout-seconds), and after a failure the shared store is
+ * skipped for app.rate-limit.distributed.open-circuit-ms; callers use their local limits meanwhile.
+ */
+@Service
+public class DistributedRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedRateLimiter.class);
+
+    @Value("${app.rate-limit.distributed.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.distributed.lease-size:10}")
+    private int leaseSize;
+
+    @Value("${app.rate-limit.distributed.near-cache-keys:100000}")
+    private int nearCacheKeys;
+    
+    @Value("${app.rate-limit.distributed.acquire-timeout-seconds:1}")
+    private int acquireTimeoutSeconds;
+    
+    @Value("${app.rate-limit.distributed.open-circuit-ms:30000}")
+    private long openCircuitMillis;
+
+    @Autowired
+    private RateLimitBucketRepository rateLimitBucketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Lease transactions, bounded by acquireTimeoutSeconds
+    private TransactionTemplate acquireTemplate;
+    
+    // Until when (epoch millis) the shared store is skipped after a failure
+    private volatile long circuitOpenUntil;
+
+    // Leases held by this node per bucket key (access-ordered, bounded)
+    private final Map<String, Lease> leases = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Lease> eldest) {
+            return size() > nearCacheKeys;
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        acquireTemplate = new TransactionTemplate(transactionManager);
+        acquireTemplate.setTimeout(acquireTimeoutSeconds);
+    }
+    
+    // Enabled and not backing off after a recent failure of the shared store
+    public boolean isAvailable() {
+        return enabled && System.currentTimeMillis() >= circuitOpenUntil;
+    }
+
+    // Take one token; returns 0 if allowed, otherwise the nanoseconds until the window resets
+    public long tryConsume(String key, int capacity, Duration period) {
+        long now = System.currentTimeMillis();
+        long periodMillis = period.toMillis();
+        long windowStart = now - now % periodMillis;
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(windowStart + periodMillis - now);
+
+        String bucketKey = hash(key);
+        Lease lease = leaseFor(bucketKey);
+
+        // Requests for the same key on this node wait for one lease instead of each going to the database
+        synchronized (lease) {
+            if (lease.windowStart != windowStart) {
+                lease.windowStart = windowStart;
+                lease.remaining = 0;
+                lease.exhausted = false;
+            }
+            if (lease.remaining > 0) {
+                lease.remaining--;
+                return 0;
+            }
+            if (lease.exhausted) {
+                return waitNanos;
+            }
+
+            int granted = acquire(bucketKey, windowStart, capacity, leaseSizeFor(capacity),
+                    toLocalDateTime(windowStart + periodMillis));
+            if (granted == 0) {
+                lease.exhausted = true;
+                return waitNanos;
+            }
+            lease.remaining = granted - 1;
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.distributed.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        Integer deleted = transactionTemplate.execute(status ->
+                rateLimitBucketRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} expired rate-limit buckets", deleted);
+        }
+    }
+
+    private int acquire(String bucketKey, long windowStart, int capacity, int requested, LocalDateTime expiresAt) {
+        try {
+            try {
+                return acquireTemplate.execute(status ->
+                        rateLimitBucketRepository.acquire(bucketKey, windowStart, capacity, requested, expiresAt));
+            } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+                // Another node created the row first (on MySQL the two gap-locked inserts deadlock); it exists now
+                return acquireTemplate.execute(status ->
+                        rateLimitBucketRepository.acquire(bucketKey, windowStart, capacity, requested, expiresAt));
+            }
+        } catch (RuntimeException e) {
+            circuitOpenUntil = System.currentTimeMillis() + openCircuitMillis;
+            log.warn("Shared rate-limit store failed, using local limits for {} ms: {}", openCircuitMillis, e.getMessage());
+            throw e;
+        }
+    }
+
+    private int leaseSizeFor(int capacity) {
+        return Math.max(1, Math.min(leaseSize, capacity / 10));
+    }
+
+    private Lease leaseFor(String bucketKey) {
+        synchronized (leases) {
+            return leases.computeIfAbsent(bucketKey, k -> new Lease());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Lease {
+        long windowStart;
+        int remaining;
+        boolean exhausted;
+    }
+}
@@ -77,19 +77,106 @@ public class EmailService {
         sendEmail(toEmail, subject, body);
     }
     
+    public void sendAbandonedCartEmail(String toEmail, int itemCount) {
+        String subject = "You left something in your cart";
+        String cartUrl = baseUrl + "/cart";
+        
+        String body = "Dear User,\n\n" +
+                "You left " + itemCount + (itemCount == 1 ? " item" : " items") + " in your cart.\n\n" +
+                "Your cart has been cleared after a period of inactivity, but the products are still waiting for you:\n" +
+                cartUrl + "\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        sendEmail(toEmail, subject, body);
+    }
+    
+    public void sendOrderConfirmationEmail(String toEmail, String orderNumber, String totalAmount) {
+        String subject = "Order Confirmation - " + orderNumber;
+        
+        String body = "Dear Customer,\n\n" +
+                "Thank you for your order!\n\n" +
+                "Order number: " + orderNumber + "\n" +
+                "Total: $" + totalAmount + "\n\n" +
+                "You can track your order here:\n" +
+                baseUrl + "/orders/" + orderNumber + "\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        send(toEmail, subject, body);
+    }
+    
+    public void sendOrderCancelledEmail(String toEmail, String orderNumber, String reason) {
+        String subject = "Order Cancelled - " + orderNumber;
+        
+        String body = "Dear Customer,\n\n" +
+                "Your order " + orderNumber + " has been cancelled.\n\n" +
+                (reason != null ? "Reason: " + reason + "\n\n" : "") +
+                "If you paid for this order, a refund will be issued to your original payment method.\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        send(toEmail, subject, body);
+    }
+    
+    public void sendPaymentReceiptEmail(String toEmail, String orderNumber, String amount, String currency) {
+        String subject = "Payment Received - " + orderNumber;
+        
+        String body = "Dear Customer,\n\n" +
+                "We have received your payment of " + amount + " " + currency + " for order " + orderNumber + ".\n\n" +
+                "Your order is confirmed and will be processed shortly.\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        send(toEmail, subject, body);
+    }
+    
+    public void sendOrderShippedEmail(String toEmail, String orderNumber, String trackingNumber) {
+        String subject = "Order Shipped - " + orderNumber;
+        
+        String body = "Dear Customer,\n\n" +
+                "Your order " + orderNumber + " is on its way!\n\n" +
+                (trackingNumber != null ? "Tracking number: " + trackingNumber + "\n\n" : "") +
+                "You can track your order here:\n" +
+                baseUrl + "/orders/" + orderNumber + "\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        send(toEmail, subject, body);
+    }
+    
+    public void sendOrderDeliveredEmail(String toEmail, String orderNumber) {
+        String subject = "Order Delivered - " + orderNumber;
+        
+        String body = "Dear Customer,\n\n" +
+                "Your order " + orderNumber + " has been delivered.\n\n" +
+                "We hope you enjoy your purchase. You can leave a review here:\n" +
+                baseUrl + "/orders/" + orderNumber + "\n\n" +
+                "Best regards,\n" +
+                "E-Commerce Team";
+        
+        send(toEmail, subject, body);
+    }
+    
     private void sendEmail(String to, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            
-            mailSender.send(message);
+            send(to, subject, body);
         } catch (Exception e) {
             // Log the error
             System.err.println("Failed to send email: " + e.getMessage());
             // In production, you might want to throw a custom exception
         }
     }
+    
+    // Order emails are sent from the outbox relay, which only retries a handler
+    // when it throws, so these propagate the MailException instead of swallowing it
+    private void send(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        
+        mailSender.send(message);
+    }
 }
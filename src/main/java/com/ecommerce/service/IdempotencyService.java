@@ -0,0 +1,289 @@
+package com.ecommerce.service;
+
+import com.ecommerce.exception.IdempotencyConflictException;
+import com.ecommerce.model.IdempotencyRecord;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs create requests at most once per Idempotency-Key.
+ *
+ * Concurrent retries on this node with the same request share the first execution's future.
+ * Completed responses are kept in a bounded LRU cache, until their table row expires, and in the
+ * idempotency_keys table. The table row is claimed in its
+ * own transaction before the create runs, and marked completed inside the create's transaction,
+ * so a retry on another node either replays the stored response or gets a 409 while the first
+ * request is still running.
+ */
+@Service
+public class IdempotencyService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    
+    public static final int MAX_KEY_LENGTH = 100;
+    
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+    
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+    
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+    
+    @Value("${app.idempotency.stale-claim-ms:120000}")
+    private long staleClaimMs;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Executions running on this node, keyed by scope/user/key
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    
+    // Recently completed responses (access-ordered, bounded)
+    private final Map<String, CachedResponse> completed = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    
+    /**
+     * Run action once for (scope, userId, key). A null key runs the action directly.
+     * resourceId extracts the id of the created resource from the result.
+     */
+    public <T> T execute(IdempotencyRecord.Scope scope, Long userId, String key, Object request,
+                         Class<T> responseType, Function<T, Long> resourceId, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        
+        key = key.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String cacheKey = scope + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+        
+        CachedResponse cached = getCached(cacheKey);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash, requestHash);
+            return responseType.cast(cached.response);
+        }
+        
+        InFlight execution = new InFlight(requestHash);
+        InFlight running = inFlight.putIfAbsent(cacheKey, execution);
+        if (running != null) {
+            checkSameRequest(running.requestHash, requestHash);
+            return responseType.cast(await(running.future));
+        }
+        
+        try {
+            T response = run(cacheKey, scope, userId, key, requestHash, responseType, resourceId, action);
+            execution.future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            execution.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, execution);
+        }
+    }
+    
+    // Drop expired keys from the table
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+    
+    // Replay or run the action; the response is cached until the table row expires
+    private <T> T run(String cacheKey, IdempotencyRecord.Scope scope, Long userId, String key, String requestHash,
+                      Class<T> responseType, Function<T, Long> resourceId, Supplier<T> action) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord existing = idempotencyRecordRepository
+                .findByScopeAndUserIdAndIdempotencyKey(scope, userId, key)
+                .orElse(null);
+        
+        IdempotencyRecord claim;
+        if (existing == null) {
+            claim = claim(scope, userId, key, requestHash, now);
+        } else {
+            checkSameRequest(existing.getRequestHash(), requestHash);
+            
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                T response = fromJson(existing.getResponseBody(), responseType);
+                putCached(cacheKey, new CachedResponse(requestHash, response, existing.getExpiresAt()));
+                return response;
+            }
+            
+            // Another node is running it, unless its claim has gone stale
+            Integer taken = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOverStaleClaim(
+                    existing.getId(), IdempotencyRecord.Status.IN_PROGRESS,
+                    now.minusNanos(staleClaimMs * 1_000_000L), now));
+            if (taken == null || taken == 0) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+            }
+            claim = existing;
+        }
+        
+        Long claimId = claim.getId();
+        try {
+            // The create and the completion marker commit together
+            T completedResponse = transactionTemplate.execute(status -> {
+                T response = action.get();
+                idempotencyRecordRepository.markCompleted(claimId, IdempotencyRecord.Status.COMPLETED,
+                        resourceId.apply(response), toJson(response), LocalDateTime.now());
+                return response;
+            });
+            putCached(cacheKey, new CachedResponse(requestHash, completedResponse, claim.getExpiresAt()));
+            return completedResponse;
+        } catch (RuntimeException e) {
+            // Nothing was created; free the key so the client can retry it
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyRecordRepository.deleteClaim(claimId, IdempotencyRecord.Status.IN_PROGRESS));
+            throw e;
+        }
+    }
+    
+    // Insert the IN_PROGRESS row in its own transaction; the unique key settles cross-node races
+    private IdempotencyRecord claim(IdempotencyRecord.Scope scope, Long userId, String key,
+                                    String requestHash, LocalDateTime now) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        record.setLockedAt(now);
+        record.setExpiresAt(now.plusHours(ttlHours));
+        
+        try {
+            return transactionTemplate.execute(status -> idempotencyRecordRepository.saveAndFlush(record));
+        } catch (DataIntegrityViolationException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is already in progress");
+        }
+    }
+    
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        }
+    }
+    
+    private void checkSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used with a different request");
+        }
+    }
+    
+    // Entries past the expiry of their table row are dropped, as purgeExpired drops the row
+    private CachedResponse getCached(String cacheKey) {
+        synchronized (completed) {
+            CachedResponse cached = completed.get(cacheKey);
+            if (cached != null && !LocalDateTime.now().isBefore(cached.expiresAt)) {
+                completed.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+    
+    private void putCached(String cacheKey, CachedResponse response) {
+        synchronized (completed) {
+            completed.put(cacheKey, response);
+        }
+    }
+    
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+    
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+    
+    private static class CachedResponse {
+        private final String requestHash;
+        private final Object response;
+        private final LocalDateTime expiresAt;
+        
+        CachedResponse(String requestHash, Object response, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    // An execution running on this node and the hash of the request it runs
+    private static class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
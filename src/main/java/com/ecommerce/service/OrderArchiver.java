@@ -0,0 +1,175 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.ArchivedOrderItemRepository;
+import com.ecommerce.repository.ArchivedOrderRepository;
+import com.ecommerce.repository.ArchivedPaymentRepository;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves closed orders (delivered, cancelled, refunded) whose last change is older than the
+ * retention window from orders / order_items / payments into the archived_* tables, keeping the
+ * hot tables small. Each chunk is copied with INSERT ... SELECT and deleted in one short
+ * transaction. Order lookups, history and stats read through to the archive.
+ */
+@Service
+public class OrderArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+    
+    private static final Set<Order.OrderStatus> CLOSED_STATUSES = EnumSet.of(
+            Order.OrderStatus.DELIVERED,
+            Order.OrderStatus.CANCELLED,
+            Order.OrderStatus.REFUNDED);
+    
+    @Value("${app.order-archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.order-archive.retention-days:365}")
+    private long retentionDays;
+    
+    @Value("${app.order-archive.chunk-size:200}")
+    private int chunkSize;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+    
+    @Autowired
+    private ArchivedPaymentRepository archivedPaymentRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    // Metrics
+    private final AtomicLong runCount = new AtomicLong();
+    private final AtomicLong totalOrdersArchived = new AtomicLong();
+    private volatile long lastOrdersArchived;
+    private volatile long lastRunDurationMs;
+    private volatile LocalDateTime lastRunAt;
+    
+    @Scheduled(cron = "${app.order-archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+    
+    // Run one full pass; returns the number of orders archived (0 if a pass is already running)
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        List<String> statusNames = CLOSED_STATUSES.stream().map(Enum::name).collect(Collectors.toList());
+        long archived = 0;
+        
+        try {
+            Long afterId = 0L;
+            
+            while (true) {
+                List<Long> candidates = orderRepository.findArchivableIds(
+                        afterId, CLOSED_STATUSES, cutoff, PageRequest.of(0, chunkSize));
+                
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                
+                Integer moved = transactionTemplate.execute(status -> archiveChunk(candidates, statusNames));
+                archived += moved != null ? moved : 0;
+                afterId = candidates.get(candidates.size() - 1);
+                
+                if (candidates.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            
+            runCount.incrementAndGet();
+            totalOrdersArchived.addAndGet(archived);
+            lastOrdersArchived = archived;
+            lastRunDurationMs = duration;
+            lastRunAt = LocalDateTime.now();
+            running.set(false);
+            
+            log.info("Order archival moved {} orders in {} ms", archived, duration);
+        }
+        
+        return archived;
+    }
+    
+    public ArchiverStats getStats() {
+        return new ArchiverStats(
+                runCount.get(),
+                totalOrdersArchived.get(),
+                lastOrdersArchived,
+                lastRunDurationMs,
+                lastRunAt,
+                running.get()
+        );
+    }
+    
+    // Copy and delete one chunk (runs inside its own transaction); returns orders moved
+    private int archiveChunk(List<Long> candidates, List<String> statusNames) {
+        // Re-check under lock: an order may have changed since the candidate scan
+        List<Long> orderIds = orderRepository.lockClosedIds(candidates, statusNames);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        archivedOrderRepository.copyFromOrders(orderIds, now);
+        archivedOrderItemRepository.copyFromOrderItems(orderIds);
+        archivedPaymentRepository.copyFromPayments(orderIds);
+        
+        paymentRepository.deleteByOrderIds(orderIds);
+        orderItemRepository.deleteByOrderIds(orderIds);
+        return orderRepository.deleteByIds(orderIds);
+    }
+    
+    // Inner class for archiver metrics
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ArchiverStats {
+        private Long runCount;
+        private Long totalOrdersArchived;
+        private Long lastOrdersArchived;
+        private Long lastRunDurationMs;
+        private LocalDateTime lastRunAt;
+        private Boolean running;
+    }
+}
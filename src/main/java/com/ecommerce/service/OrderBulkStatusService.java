@@ -0,0 +1,329 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.BulkCancelRequest;
+import com.ecommerce.dto.BulkStatusUpdateRequest;
+import com.ecommerce.dto.BulkStatusUpdateResponse;
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.OrderBulkRepository;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Applies fulfilment status updates (orderNumber, status, trackingNumber) in bulk.
+ *
+ * Rows are validated against the Order state machine and applied in chunks, each in its own
+ * transaction: the chunk's orders are locked with one SELECT ... FOR UPDATE, moved with one
+ * UPDATE per (from, to) pair, and tracking numbers are written in one JDBC batch. Stats deltas
+ * and a single outbox event for the whole chunk are recorded in the same transaction.
+ * Invalid rows are reported back instead of failing the request.
+ *
+ * Bulk cancellation follows the same chunking; stock of the whole chunk is restored with one
+ * atomic increment per product, and one ORDER_CANCELLED event is recorded per order.
+ */
+@Service
+public class OrderBulkStatusService {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderBulkStatusService.class);
+    
+    // Cancellation and refunds restore stock / money and go through their own flows
+    private static final Set<Order.OrderStatus> BULK_TARGETS = EnumSet.of(
+            Order.OrderStatus.CONFIRMED,
+            Order.OrderStatus.PROCESSING,
+            Order.OrderStatus.SHIPPED,
+            Order.OrderStatus.DELIVERED);
+    
+    @Value("${app.order-bulk.chunk-size:500}")
+    private int chunkSize;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    public BulkStatusUpdateResponse updateStatuses(BulkStatusUpdateRequest request) {
+        List<BulkStatusUpdateRequest.Item> updates = request.getUpdates();
+        List<BulkStatusUpdateResponse.Rejection> rejections = new ArrayList<>();
+        List<Row> rows = new ArrayList<>(updates.size());
+        Map<String, Integer> seen = new HashMap<>();
+        
+        // Request-level validation (no database access)
+        for (int i = 0; i < updates.size(); i++) {
+            BulkStatusUpdateRequest.Item item = updates.get(i);
+            String orderNumber = item.getOrderNumber().trim();
+            
+            Integer firstIndex = seen.putIfAbsent(orderNumber, i);
+            if (firstIndex != null) {
+                rejections.add(reject(i, orderNumber, "Duplicate of update #" + firstIndex));
+                continue;
+            }
+            
+            Order.OrderStatus target;
+            try {
+                target = Order.OrderStatus.valueOf(item.getStatus().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                rejections.add(reject(i, orderNumber, "Invalid order status: " + item.getStatus()));
+                continue;
+            }
+            
+            if (!BULK_TARGETS.contains(target)) {
+                rejections.add(reject(i, orderNumber, "Status " + target + " cannot be set in bulk"));
+                continue;
+            }
+            
+            String trackingNumber = item.getTrackingNumber() != null && !item.getTrackingNumber().isBlank()
+                    ? item.getTrackingNumber().trim() : null;
+            rows.add(new Row(i, orderNumber, target, trackingNumber));
+        }
+        
+        int applied = 0;
+        for (int start = 0; start < rows.size(); start += chunkSize) {
+            List<Row> chunk = rows.subList(start, Math.min(start + chunkSize, rows.size()));
+            List<BulkStatusUpdateResponse.Rejection> chunkRejections = new ArrayList<>();
+            
+            try {
+                Integer chunkApplied = transactionTemplate.execute(status -> applyChunk(chunk, chunkRejections));
+                applied += chunkApplied != null ? chunkApplied : 0;
+                rejections.addAll(chunkRejections);
+            } catch (RuntimeException e) {
+                log.error("Bulk status chunk of {} rows failed", chunk.size(), e);
+                for (Row row : chunk) {
+                    rejections.add(reject(row.index, row.orderNumber, "Update failed, please retry"));
+                }
+            }
+        }
+        
+        rejections.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return new BulkStatusUpdateResponse(updates.size(), applied, rejections.size(), rejections);
+    }
+    
+    // Validate and apply one chunk (runs inside its own transaction); returns rows applied
+    private int applyChunk(List<Row> chunk, List<BulkStatusUpdateResponse.Rejection> rejections) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        Map<String, OrderBulkRepository.OrderState> states = orderRepository
+                .lockStatesByOrderNumbers(chunk.stream().map(row -> row.orderNumber).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(OrderBulkRepository.OrderState::getOrderNumber, state -> state));
+        
+        Map<Order.OrderStatus, Map<Order.OrderStatus, List<Long>>> moves = new EnumMap<>(Order.OrderStatus.class);
+        Map<Long, String> trackingNumbers = new LinkedHashMap<>();
+        List<UserOrderStatsService.StatusChange> statsChanges = new ArrayList<>();
+        List<Map<String, Object>> transitions = new ArrayList<>();
+        int applied = 0;
+        
+        for (Row row : chunk) {
+            OrderBulkRepository.OrderState state = states.get(row.orderNumber);
+            
+            if (state == null) {
+                rejections.add(reject(row.index, row.orderNumber, "Order not found"));
+                continue;
+            }
+            
+            Order.OrderStatus current = state.getStatus();
+            
+            if (current == row.target) {
+                // Re-sending the current status only updates the tracking number
+                if (row.trackingNumber == null || row.trackingNumber.equals(state.getTrackingNumber())) {
+                    rejections.add(reject(row.index, row.orderNumber, "Order is already " + current));
+                    continue;
+                }
+            } else if (!current.canTransitionTo(row.target)) {
+                rejections.add(reject(row.index, row.orderNumber,
+                        "Cannot change status from " + current + " to " + row.target));
+                continue;
+            } else {
+                moves.computeIfAbsent(current, from -> new EnumMap<>(Order.OrderStatus.class))
+                        .computeIfAbsent(row.target, to -> new ArrayList<>())
+                        .add(state.getId());
+                statsChanges.add(new UserOrderStatsService.StatusChange(state.getUserId(), current, row.target));
+                transitions.add(transition(state, row));
+            }
+            
+            if (row.trackingNumber != null) {
+                trackingNumbers.put(state.getId(), row.trackingNumber);
+            }
+            applied++;
+        }
+        
+        // One UPDATE per (from, to) pair; rows are locked, so every listed order must match
+        moves.forEach((from, byTarget) -> byTarget.forEach((to, orderIds) -> {
+            int updated = orderRepository.updateStatus(orderIds, from, to, now);
+            if (updated != orderIds.size()) {
+                throw new IllegalStateException("Expected " + orderIds.size() + " orders in " + from + ", updated " + updated);
+            }
+        }));
+        
+        orderRepository.updateTrackingNumbers(trackingNumbers);
+        
+        if (!statsChanges.isEmpty()) {
+            userOrderStatsService.statusesChanged(statsChanges);
+            outboxService.orderStatusBatch(UUID.randomUUID().toString(), transitions);
+        }
+        
+        return applied;
+    }
+    
+    public BulkStatusUpdateResponse cancelOrders(BulkCancelRequest request) {
+        List<String> orderNumbers = request.getOrderNumbers();
+        String reason = request.getReason() != null && !request.getReason().isBlank()
+                ? request.getReason().trim() : "Cancelled by administrator";
+        List<BulkStatusUpdateResponse.Rejection> rejections = new ArrayList<>();
+        List<Row> rows = new ArrayList<>(orderNumbers.size());
+        Map<String, Integer> seen = new HashMap<>();
+        
+        for (int i = 0; i < orderNumbers.size(); i++) {
+            String orderNumber = orderNumbers.get(i).trim();
+            
+            Integer firstIndex = seen.putIfAbsent(orderNumber, i);
+            if (firstIndex != null) {
+                rejections.add(reject(i, orderNumber, "Duplicate of order #" + firstIndex));
+                continue;
+            }
+            rows.add(new Row(i, orderNumber, Order.OrderStatus.CANCELLED, null));
+        }
+        
+        int applied = 0;
+        for (int start = 0; start < rows.size(); start += chunkSize) {
+            List<Row> chunk = rows.subList(start, Math.min(start + chunkSize, rows.size()));
+            List<BulkStatusUpdateResponse.Rejection> chunkRejections = new ArrayList<>();
+            
+            try {
+                Integer chunkApplied = transactionTemplate.execute(status -> cancelChunk(chunk, reason, chunkRejections));
+                applied += chunkApplied != null ? chunkApplied : 0;
+                rejections.addAll(chunkRejections);
+            } catch (RuntimeException e) {
+                log.error("Bulk cancel chunk of {} rows failed", chunk.size(), e);
+                for (Row row : chunk) {
+                    rejections.add(reject(row.index, row.orderNumber, "Cancellation failed, please retry"));
+                }
+            }
+        }
+        
+        rejections.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return new BulkStatusUpdateResponse(orderNumbers.size(), applied, rejections.size(), rejections);
+    }
+    
+    // Validate and cancel one chunk (runs inside its own transaction); returns orders cancelled
+    private int cancelChunk(List<Row> chunk, String reason, List<BulkStatusUpdateResponse.Rejection> rejections) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        Map<String, OrderBulkRepository.OrderState> states = orderRepository
+                .lockStatesByOrderNumbers(chunk.stream().map(row -> row.orderNumber).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(OrderBulkRepository.OrderState::getOrderNumber, state -> state));
+        
+        Map<Order.OrderStatus, List<Long>> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        List<OrderBulkRepository.OrderState> cancelled = new ArrayList<>();
+        List<UserOrderStatsService.StatusChange> statsChanges = new ArrayList<>();
+        
+        for (Row row : chunk) {
+            OrderBulkRepository.OrderState state = states.get(row.orderNumber);
+            
+            if (state == null) {
+                rejections.add(reject(row.index, row.orderNumber, "Order not found"));
+                continue;
+            }
+            if (!state.getStatus().isCancellable()) {
+                rejections.add(reject(row.index, row.orderNumber,
+                        "Order cannot be cancelled. Current status: " + state.getStatus()));
+                continue;
+            }
+            
+            byStatus.computeIfAbsent(state.getStatus(), from -> new ArrayList<>()).add(state.getId());
+            cancelled.add(state);
+            
+            BigDecimal spentChange = state.getPaymentStatus() == Order.PaymentStatus.PAID
+                    ? state.getTotalAmount().negate() : null;
+            statsChanges.add(new UserOrderStatsService.StatusChange(
+                    state.getUserId(), state.getStatus(), Order.OrderStatus.CANCELLED, spentChange));
+        }
+        
+        if (cancelled.isEmpty()) {
+            return 0;
+        }
+        
+        byStatus.forEach((from, orderIds) -> {
+            int updated = orderRepository.cancelOrders(orderIds, from, reason, now);
+            if (updated != orderIds.size()) {
+                throw new IllegalStateException("Expected " + orderIds.size() + " orders in " + from + ", updated " + updated);
+            }
+        });
+        
+        // Stock for the whole chunk, summed per product in the database
+        List<Long> orderIds = cancelled.stream().map(OrderBulkRepository.OrderState::getId).collect(Collectors.toList());
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantitiesByProductForOrders(orderIds)) {
+            quantities.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        productRepository.restoreStock(quantities);
+        
+        userOrderStatsService.statusesChanged(statsChanges);
+        outboxService.ordersCancelled(cancelled, reason);
+        
+        return cancelled.size();
+    }
+    
+    private Map<String, Object> transition(OrderBulkRepository.OrderState state, Row row) {
+        Map<String, Object> transition = new LinkedHashMap<>();
+        transition.put("orderId", state.getId());
+        transition.put("orderNumber", state.getOrderNumber());
+        transition.put("userId", state.getUserId());
+        transition.put("email", state.getShippingEmail());
+        transition.put("from", state.getStatus().name());
+        transition.put("to", row.target.name());
+        transition.put("trackingNumber", row.trackingNumber != null ? row.trackingNumber : state.getTrackingNumber());
+        return transition;
+    }
+    
+    private static BulkStatusUpdateResponse.Rejection reject(int index, String orderNumber, String reason) {
+        return new BulkStatusUpdateResponse.Rejection(index, orderNumber, reason);
+    }
+    
+    // One validated update line
+    private static class Row {
+        private final int index;
+        private final String orderNumber;
+        private final Order.OrderStatus target;
+        private final String trackingNumber;
+        
+        Row(int index, String orderNumber, Order.OrderStatus target, String trackingNumber) {
+            this.index = index;
+            this.orderNumber = orderNumber;
+            this.target = target;
+            this.trackingNumber = trackingNumber;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderSearchRequest;
+import com.ecommerce.dto.OrderSummaryResponse;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.OrderSearchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Streams admin order exports as CSV or NDJSON.
+ * Rows are written as they are read from the database cursor, so memory use does not grow
+ * with the size of the export.
+ */
+@Service
+public class OrderExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+    
+    private static final String CSV_HEADER = "id,orderNumber,userId,status,paymentStatus,paymentMethod," +
+            "subtotal,discount,tax,shippingCost,totalAmount,shippingName,shippingEmail,shippingCity," +
+            "shippingCountry,trackingNumber,createdAt,deliveredAt,cancelledAt";
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid export format: " + value);
+            }
+        }
+    }
+    
+    // Validate filters up front so bad requests fail before the response starts streaming
+    public OrderSearchRepository.Filter prepare(OrderSearchRequest request) {
+        return orderService.toSearchFilter(request);
+    }
+    
+    // Write every matching order to the stream; returns the number of rows written
+    public long export(OrderSearchRepository.Filter filter, Format format, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        long[] rows = {0};
+        
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        try {
+            orderRepository.streamOrders(filter, order -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, order);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(order));
+                        writer.write('\n');
+                    }
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away; stop reading from the cursor
+            throw e.getCause();
+        }
+        
+        writer.flush();
+        log.info("Exported {} orders as {} in {} ms", rows[0], format, System.currentTimeMillis() - start);
+        return rows[0];
+    }
+    
+    private void writeCsvRow(Writer writer, OrderSummaryResponse order) throws IOException {
+        Object[] values = {
+                order.getId(), order.getOrderNumber(), order.getUserId(), order.getStatus(),
+                order.getPaymentStatus(), order.getPaymentMethod(), order.getSubtotal(), order.getDiscount(),
+                order.getTax(), order.getShippingCost(), order.getTotalAmount(), order.getShippingName(),
+                order.getShippingEmail(), order.getShippingCity(), order.getShippingCountry(),
+                order.getTrackingNumber(), order.getCreatedAt(), order.getDeliveredAt(), order.getCancelledAt()
+        };
+        
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvValue(writer, values[i].toString());
+            }
+        }
+        writer.write('\n');
+    }
+    
+    // RFC 4180 quoting. Cells a spreadsheet would read as a formula (leading =, +, -, @, tab or CR)
+    // get a leading ' so they stay text
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,34 +1,52 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.CreateOrderRequest;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.OrderItemSnapshot;
 import com.ecommerce.dto.OrderResponse;
+import com.ecommerce.dto.OrderSearchRequest;
+import com.ecommerce.dto.OrderSummaryResponse;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.*;
+import com.ecommerce.util.KeysetCursor;
+import com.ecommerce.util.OrderNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Marks history cursors that point into the archive (not part of the base64 alphabet)
+    private static final String ARCHIVE_CURSOR_PREFIX = "a.";
+    
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+    
     @Autowired
     private CartItemRepository cartItemRepository;
     
@@ -38,6 +56,18 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private CartPricingCalculator cartPricingCalculator;
+    
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+    
     // Create order from cart
     @Transactional
     public OrderResponse createOrder(Long userId, CreateOrderRequest request) {
@@ -67,9 +97,21 @@ public class OrderService {
             }
         }
         
+        // Take the stock with guarded relative decrements; a concurrent checkout may have taken it since the check
+        Map<Long, Integer> quantities = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+            names.put(cartItem.getProduct().getId(), cartItem.getProduct().getName());
+        }
+        List<Long> shortages = productRepository.reserveStock(quantities);
+        if (!shortages.isEmpty()) {
+            throw new IllegalStateException("Insufficient stock for '" + names.get(shortages.get(0)) + "'");
+        }
+        
         // Create order
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
         order.setUser(user);
         order.setStatus(Order.OrderStatus.PENDING);
         order.setPaymentStatus(Order.PaymentStatus.PENDING);
@@ -98,29 +140,16 @@ public class OrderService {
         order.setOrderNotes(request.getOrderNotes());
         
         // Calculate totals
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal discount = BigDecimal.ZERO;
-        
-        for (CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
-            BigDecimal itemSubtotal = cartItem.getSubtotal();
-            subtotal = subtotal.add(itemSubtotal);
-            
-            // Calculate discount if product has discount
-            if (product.hasDiscount()) {
-                BigDecimal regularPrice = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-                BigDecimal itemDiscount = regularPrice.subtract(itemSubtotal);
-                discount = discount.add(itemDiscount);
-            }
-        }
+        CartPricingCalculator.CartPricing pricing = cartPricingCalculator.price(cartItems);
         
         // For now, tax and shipping are 0 (can be calculated based on location)
         BigDecimal tax = BigDecimal.ZERO;
         BigDecimal shippingCost = BigDecimal.ZERO;
+        BigDecimal subtotal = pricing.getSubtotal();
         BigDecimal total = subtotal.add(tax).add(shippingCost);
         
         order.setSubtotal(subtotal);
-        order.setDiscount(discount);
+        order.setDiscount(pricing.getDiscount());
         order.setTax(tax);
         order.setShippingCost(shippingCost);
         order.setTotalAmount(total);
@@ -128,8 +157,9 @@ public class OrderService {
         // Save order first to get ID
         order = orderRepository.save(order);
         
-        // Create order items and update product stock
-        for (CartItem cartItem : cartItems) {
+        // Create order items
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem cartItem = cartItems.get(i);
             Product product = cartItem.getProduct();
             
             OrderItem orderItem = new OrderItem();
@@ -140,21 +170,13 @@ public class OrderService {
             orderItem.setProductImage(product.getMainImage());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setUnitPrice(cartItem.getPriceAtAddition());
-            orderItem.setSubtotal(cartItem.getSubtotal());
+            orderItem.setSubtotal(pricing.getLineSubtotal(i));
             
-            if (product.hasDiscount()) {
-                BigDecimal itemDiscount = product.getPrice()
-                        .subtract(product.getDiscountPrice())
-                        .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-                orderItem.setDiscountAmount(itemDiscount);
+            if (pricing.hasLineMarkdown(i)) {
+                orderItem.setDiscountAmount(pricing.getLineMarkdown(i));
             }
             
             order.addOrderItem(orderItem);
-            
-            // Update product stock and sold count
-            product.decrementStock(cartItem.getQuantity());
-            product.incrementSoldCount(cartItem.getQuantity());
-            productRepository.save(product);
         }
         
         // Save order with items
@@ -163,13 +185,23 @@ public class OrderService {
         // Clear cart
         cartItemRepository.deleteByUserId(userId);
         
+        userOrderStatsService.orderCreated(order);
+        
+        // Side effects (notifications etc.) run from the outbox after commit
+        outboxService.orderPlaced(order);
+        
         return mapToResponse(order);
     }
     
-    // Get order by ID
+    // Get order by ID (falls through to the archive for old closed orders)
     public OrderResponse getOrder(Long userId, Long orderId) {
-        Order order = orderRepository.findByIdWithItems(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Order order = orderRepository.findByIdWithItems(orderId).orElse(null);
+        
+        if (order == null) {
+            ArchivedOrder archived = archivedOrderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            return mapArchivedToResponse(userId, archived);
+        }
         
         // Verify order belongs to user
         if (!order.getUser().getId().equals(userId)) {
@@ -179,10 +211,15 @@ public class OrderService {
         return mapToResponse(order);
     }
     
-    // Get order by order number
+    // Get order by order number (falls through to the archive for old closed orders)
     public OrderResponse getOrderByNumber(Long userId, String orderNumber) {
-        Order order = orderRepository.findByOrderNumberWithItems(orderNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Order order = orderRepository.findByOrderNumberWithItems(orderNumber).orElse(null);
+        
+        if (order == null) {
+            ArchivedOrder archived = archivedOrderRepository.findByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            return mapArchivedToResponse(userId, archived);
+        }
         
         // Verify order belongs to user
         if (!order.getUser().getId().equals(userId)) {
@@ -192,20 +229,140 @@ public class OrderService {
         return mapToResponse(order);
     }
     
-    // Get user's order history
+    // Get user's order history: live orders newest first, then archived orders newest first
     public Page<OrderResponse> getOrderHistory(Long userId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
-        return orders.map(this::mapToResponse);
+        Pageable pageable = PageRequest.of(page, size);
+        long liveCount = orderRepository.countByUserId(userId);
+        long archivedCount = archivedOrderRepository.countByUserId(userId);
+        long offset = pageable.getOffset();
+        
+        List<Order> orders = offset < liveCount
+                ? orderRepository.findHistoryFirstPage(userId, pageable)
+                : List.of();
+        
+        // The archive continues where the live table ends; only the rows this page needs are read
+        List<ArchivedOrder> archived = List.of();
+        int remaining = size - orders.size();
+        if (remaining > 0 && archivedCount > 0) {
+            archived = archivedOrderRepository.findHistoryRange(userId, Math.max(0, offset - liveCount), remaining);
+        }
+        
+        return new PageImpl<>(concat(orders, archived), pageable, liveCount + archivedCount);
+    }
+    
+    // Get user's order history by keyset on (createdAt, id); cursor is null for the first page.
+    // Pages run through the live table, then through the archive; archive cursors carry a prefix
+    public CursorPage<OrderResponse> getOrderHistoryPage(Long userId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        boolean inArchive = cursor != null && cursor.startsWith(ARCHIVE_CURSOR_PREFIX);
+        KeysetCursor after = KeysetCursor.decode(inArchive ? cursor.substring(ARCHIVE_CURSOR_PREFIX.length()) : cursor);
+        
+        List<Order> orders = List.of();
+        if (!inArchive) {
+            Pageable limit = PageRequest.of(0, pageSize + 1);
+            orders = after == null
+                    ? orderRepository.findHistoryFirstPage(userId, limit)
+                    : orderRepository.findHistoryPageAfter(userId, after.getTimestamp(), after.getId(), limit);
+        }
+        
+        // Top up from the archive once the live table runs out
+        List<ArchivedOrder> archived = List.of();
+        if (orders.size() <= pageSize) {
+            Pageable limit = PageRequest.of(0, pageSize + 1 - orders.size());
+            archived = inArchive && after != null
+                    ? archivedOrderRepository.findHistoryPageAfter(userId, after.getTimestamp(), after.getId(), limit)
+                    : archivedOrderRepository.findHistoryFirstPage(userId, limit);
+        }
+        
+        List<OrderResponse> responses = concat(orders, archived);
+        boolean hasMore = responses.size() > pageSize;
+        if (hasMore) {
+            responses = responses.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponse last = responses.get(responses.size() - 1);
+            String keyset = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+            nextCursor = responses.size() > orders.size() ? ARCHIVE_CURSOR_PREFIX + keyset : keyset;
+        }
+        
+        return new CursorPage<>(responses, nextCursor, hasMore);
+    }
+    
+    // Admin search by keyset on (createdAt, id), newest first; cursor is null for the first page
+    public CursorPage<OrderSummaryResponse> searchOrders(OrderSearchRequest request, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        
+        List<OrderSummaryResponse> orders = orderRepository.searchOrders(toSearchFilter(request),
+                after != null ? after.getTimestamp() : null,
+                after != null ? after.getId() : null,
+                pageSize + 1);
+        
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = orders.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummaryResponse last = orders.get(orders.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return new CursorPage<>(orders, nextCursor, hasMore);
+    }
+    
+    // Validate and convert admin search parameters
+    public OrderSearchRepository.Filter toSearchFilter(OrderSearchRequest request) {
+        OrderSearchRepository.Filter filter = new OrderSearchRepository.Filter();
+        
+        if (request.getStatus() != null && !request.getStatus().isBlank()) {
+            try {
+                filter.setStatus(Order.OrderStatus.valueOf(request.getStatus().trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid order status: " + request.getStatus());
+            }
+        }
+        
+        if (request.getPaymentStatus() != null && !request.getPaymentStatus().isBlank()) {
+            try {
+                filter.setPaymentStatus(Order.PaymentStatus.valueOf(request.getPaymentStatus().trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid payment status: " + request.getPaymentStatus());
+            }
+        }
+        
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        
+        if (request.getMinTotal() != null && request.getMaxTotal() != null
+                && request.getMinTotal().compareTo(request.getMaxTotal()) > 0) {
+            throw new IllegalArgumentException("'minTotal' cannot exceed 'maxTotal'");
+        }
+        
+        filter.setFrom(request.getFrom());
+        filter.setTo(request.getTo());
+        filter.setUserId(request.getUserId());
+        filter.setMinTotal(request.getMinTotal());
+        filter.setMaxTotal(request.getMaxTotal());
+        filter.setCountry(request.getCountry());
+        return filter;
     }
     
     // Get recent orders (last 5)
     public List<OrderResponse> getRecentOrders(Long userId) {
         Pageable pageable = PageRequest.of(0, 5);
-        List<Order> orders = orderRepository.findRecentOrdersByUserId(userId, pageable);
-        return orders.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<Order> orders = orderRepository.findHistoryFirstPage(userId, pageable);
+        
+        // Only reach into the archive when the user has fewer than 5 live orders
+        if (orders.size() == pageable.getPageSize()) {
+            return mapToResponses(orders);
+        }
+        return concat(orders, archivedOrderRepository.findHistoryFirstPage(userId,
+                PageRequest.of(0, pageable.getPageSize() - orders.size())));
     }
     
     // Continues in Part 2...
@@ -214,7 +371,8 @@ public class OrderService {
     // Cancel order
     @Transactional
     public OrderResponse cancelOrder(Long userId, Long orderId, String reason) {
-        Order order = orderRepository.findByIdWithItems(orderId)
+        // Locked: a concurrent cancel waits here and then sees CANCELLED, so stock is restored once
+        Order order = orderRepository.findByIdWithItemsForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         
         // Verify order belongs to user
@@ -227,13 +385,15 @@ public class OrderService {
             throw new IllegalStateException("Order cannot be cancelled. Current status: " + order.getStatus());
         }
         
-        // Restore product stock
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
+        
+        // Restore product stock: one atomic increment per product, without loading products
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            product.setSoldCount(product.getSoldCount() - item.getQuantity());
-            productRepository.save(product);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        productRepository.restoreStock(quantities);
         
         // Update order status
         order.setStatus(Order.OrderStatus.CANCELLED);
@@ -246,75 +406,114 @@ public class OrderService {
         
         order = orderRepository.save(order);
         
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        outboxService.orderCancelled(order);
+        
         return mapToResponse(order);
     }
     
     // Update order status (Admin)
     @Transactional
     public OrderResponse updateOrderStatus(Long orderId, String status) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-        
+        Order.OrderStatus newStatus;
         try {
-            Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status);
-            order.setStatus(newStatus);
-            
-            if (newStatus == Order.OrderStatus.DELIVERED) {
-                order.setDeliveredAt(LocalDateTime.now());
-            }
-            
-            order = orderRepository.save(order);
+            newStatus = Order.OrderStatus.valueOf(status);
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid order status: " + status);
         }
         
+        // Cancelling restores stock and refunding moves money; both have their own endpoints
+        if (newStatus == Order.OrderStatus.CANCELLED || newStatus == Order.OrderStatus.REFUNDED) {
+            throw new IllegalArgumentException("Status " + newStatus + " cannot be set directly; cancel or refund the order instead");
+        }
+        
+        // Locked so the transition check and the write see the same status as concurrent changes
+        Order order = orderRepository.findByIdWithItemsForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
+        
+        if (!order.canTransitionTo(newStatus)) {
+            throw new IllegalStateException("Cannot change status from " + previousStatus + " to " + newStatus);
+        }
+        
+        order.setStatus(newStatus);
+        
+        if (newStatus == Order.OrderStatus.DELIVERED) {
+            order.setDeliveredAt(LocalDateTime.now());
+        }
+        
+        order = orderRepository.save(order);
+        
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        
         return mapToResponse(order);
     }
     
     // Update payment status (Admin)
     @Transactional
     public OrderResponse updatePaymentStatus(Long orderId, String paymentStatus) {
-        Order order = orderRepository.findById(orderId)
+        Order.PaymentStatus newPaymentStatus;
+        try {
+            newPaymentStatus = Order.PaymentStatus.valueOf(paymentStatus);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid payment status: " + paymentStatus);
+        }
+        
+        // Locked like updateOrderStatus and bulk changes, so the status check sees the current status
+        Order order = orderRepository.findByIdWithItemsForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         
-        try {
-            Order.PaymentStatus newStatus = Order.PaymentStatus.valueOf(paymentStatus);
-            order.setPaymentStatus(newStatus);
-            
-            if (newStatus == Order.PaymentStatus.PAID) {
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
+        
+        // Payment confirms a pending order; orders further along keep their status, closed ones take no payment
+        if (newPaymentStatus == Order.PaymentStatus.PAID) {
+            if (order.canTransitionTo(Order.OrderStatus.CONFIRMED)) {
                 order.setStatus(Order.OrderStatus.CONFIRMED);
+            } else if (previousStatus.allowedTransitions().isEmpty()) {
+                throw new IllegalStateException("Cannot mark a " + previousStatus + " order as paid");
             }
-            
-            order = orderRepository.save(order);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid payment status: " + paymentStatus);
         }
         
+        order.setPaymentStatus(newPaymentStatus);
+        order = orderRepository.save(order);
+        
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        outboxService.paymentStatusChanged(order, previousPaymentStatus);
+        
         return mapToResponse(order);
     }
     
-    // Add tracking number
+    // Add tracking number (moves the order to SHIPPED; a shipped order may have its number corrected)
     @Transactional
     public OrderResponse addTrackingNumber(Long orderId, String trackingNumber) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdWithItemsForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
+        
+        if (previousStatus != Order.OrderStatus.SHIPPED && !order.canTransitionTo(Order.OrderStatus.SHIPPED)) {
+            throw new IllegalStateException("Cannot ship an order in status " + previousStatus);
+        }
+        
         order.setTrackingNumber(trackingNumber);
         order.setStatus(Order.OrderStatus.SHIPPED);
         
         order = orderRepository.save(order);
         
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        
         return mapToResponse(order);
     }
     
-    // Get order statistics for user
+    // Get order statistics for user (single row read from the user_order_stats read model)
     public OrderStatistics getUserOrderStatistics(Long userId) {
-        Long totalOrders = orderRepository.countByUserId(userId);
-        BigDecimal totalSpent = orderRepository.getTotalSalesByUserId(userId);
-        
-        if (totalSpent == null) {
-            totalSpent = BigDecimal.ZERO;
-        }
+        UserOrderStats stats = userOrderStatsService.getStats(userId);
+        Long totalOrders = stats.getTotalOrders();
+        BigDecimal totalSpent = stats.getTotalSpent();
         
         return new OrderStatistics(
             totalOrders,
@@ -323,23 +522,117 @@ public class OrderService {
         );
     }
     
-    // Generate unique order number
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = String.format("%04d", new Random().nextInt(10000));
-        String orderNumber = "ORD-" + timestamp + "-" + random;
+    // Live orders followed by archived ones, mapped in one pass per source
+    private List<OrderResponse> concat(List<Order> live, List<ArchivedOrder> archived) {
+        List<OrderResponse> responses = new ArrayList<>(mapToResponses(live));
+        responses.addAll(mapArchivedToResponses(archived));
+        return responses;
+    }
+    
+    private OrderResponse mapArchivedToResponse(Long userId, ArchivedOrder archived) {
+        // Verify order belongs to user
+        if (!archived.getUserId().equals(userId)) {
+            throw new IllegalStateException("Access denied");
+        }
+        return mapArchivedToResponses(List.of(archived)).get(0);
+    }
+    
+    // Map archived orders, loading their items with a single query
+    private List<OrderResponse> mapArchivedToResponses(List<ArchivedOrder> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> orderIds = orders.stream()
+                .map(ArchivedOrder::getId)
+                .collect(Collectors.toList());
+        
+        Map<Long, List<OrderResponse.OrderItemResponse>> itemsByOrder = new HashMap<>();
+        for (ArchivedOrderItem item : archivedOrderItemRepository.findByOrderIdInOrderByIdAsc(orderIds)) {
+            itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>())
+                    .add(new OrderResponse.OrderItemResponse(item.getId(), item.getProductId(),
+                            item.getProductName(), item.getProductSku(), item.getProductImage(),
+                            item.getQuantity(), item.getUnitPrice(), item.getDiscountAmount(), item.getSubtotal()));
+        }
+        
+        return orders.stream()
+                .map(order -> mapArchivedToResponse(order, itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+    
+    private OrderResponse mapArchivedToResponse(ArchivedOrder order, List<OrderResponse.OrderItemResponse> itemResponses) {
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setOrderNumber(order.getOrderNumber());
+        response.setStatus(order.getStatus().name());
+        response.setPaymentStatus(order.getPaymentStatus().name());
+        
+        if (order.getPaymentMethod() != null) {
+            response.setPaymentMethod(order.getPaymentMethod().name());
+        }
+        
+        response.setSubtotal(order.getSubtotal());
+        response.setDiscount(order.getDiscount());
+        response.setTax(order.getTax());
+        response.setShippingCost(order.getShippingCost());
+        response.setTotalAmount(order.getTotalAmount());
+        
+        response.setShippingAddress(new OrderResponse.ShippingAddress(
+                order.getShippingName(),
+                order.getShippingEmail(),
+                order.getShippingPhone(),
+                order.getShippingAddressLine1(),
+                order.getShippingAddressLine2(),
+                order.getShippingCity(),
+                order.getShippingState(),
+                order.getShippingPostalCode(),
+                order.getShippingCountry()));
+        
+        response.setItems(itemResponses);
+        
+        response.setOrderNotes(order.getOrderNotes());
+        response.setTrackingNumber(order.getTrackingNumber());
+        response.setCancellationReason(order.getCancellationReason());
+        
+        response.setCreatedAt(order.getCreatedAt());
+        response.setUpdatedAt(order.getUpdatedAt());
+        response.setDeliveredAt(order.getDeliveredAt());
+        response.setCancelledAt(order.getCancelledAt());
+        
+        return response;
+    }
+    
+    // Map a list of orders, loading the items of all of them with a single snapshot query
+    private List<OrderResponse> mapToResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> orderIds = orders.stream()
+                .map(Order::getId)
+                .collect(Collectors.toList());
         
-        // Ensure uniqueness
-        while (orderRepository.existsByOrderNumber(orderNumber)) {
-            random = String.format("%04d", new Random().nextInt(10000));
-            orderNumber = "ORD-" + timestamp + "-" + random;
+        Map<Long, List<OrderResponse.OrderItemResponse>> itemsByOrder = new HashMap<>();
+        for (OrderItemSnapshot snapshot : orderItemRepository.findSnapshotsByOrderIds(orderIds)) {
+            itemsByOrder.computeIfAbsent(snapshot.getOrderId(), id -> new ArrayList<>())
+                    .add(mapToItemResponse(snapshot));
         }
         
-        return orderNumber;
+        return orders.stream()
+                .map(order -> mapToResponse(order, itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
     }
     
-    // Map Order entity to OrderResponse
+    // Map Order entity (with its items loaded) to OrderResponse
     private OrderResponse mapToResponse(Order order) {
+        List<OrderResponse.OrderItemResponse> itemResponses = order.getOrderItems().stream()
+                .map(this::mapToItemResponse)
+                .collect(Collectors.toList());
+        return mapToResponse(order, itemResponses);
+    }
+    
+    // Map Order entity to OrderResponse using already mapped items
+    private OrderResponse mapToResponse(Order order, List<OrderResponse.OrderItemResponse> itemResponses) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
         response.setOrderNumber(order.getOrderNumber());
@@ -370,9 +663,6 @@ public class OrderService {
         response.setShippingAddress(shippingAddress);
         
         // Order items
-        List<OrderResponse.OrderItemResponse> itemResponses = order.getOrderItems().stream()
-                .map(this::mapToItemResponse)
-                .collect(Collectors.toList());
         response.setItems(itemResponses);
         
         response.setOrderNotes(order.getOrderNotes());
@@ -402,6 +692,21 @@ public class OrderService {
         return response;
     }
     
+    // Map an order item snapshot to OrderItemResponse
+    private OrderResponse.OrderItemResponse mapToItemResponse(OrderItemSnapshot item) {
+        return new OrderResponse.OrderItemResponse(
+                item.getId(),
+                item.getProductId(),
+                item.getProductName(),
+                item.getProductSku(),
+                item.getProductImage(),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getDiscountAmount(),
+                item.getSubtotal()
+        );
+    }
+    
     // Inner class for order statistics
     @lombok.Data
     @lombok.AllArgsConstructor
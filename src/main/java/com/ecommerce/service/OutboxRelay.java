@@ -0,0 +1,276 @@
+package com.ecommerce.service;
+
+import com.ecommerce.event.OutboxEventHandler;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Dispatches outbox events to OutboxEventHandler beans off the request path.
+ *
+ * Each poll claims a batch of due events (SKIP LOCKED, so several nodes can relay at once),
+ * hands them to a worker pool grouped by order so events of one order stay in sequence,
+ * then marks the batch processed in one UPDATE. Delivery is tracked per handler: when one
+ * handler fails, the handlers that succeeded are recorded on the event and only the failed ones
+ * run again, retried with exponential backoff. Claims left behind by a crashed relay are
+ * released after a timeout.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    @Value("${app.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.threads:4}")
+    private int threads;
+
+    @Value("${app.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.relay.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private long retentionDays;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<OutboxEventHandler> handlers = Collections.emptyList();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        // Keep draining while batches come back full
+        while (relayBatch() == batchSize) {
+            // next batch
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.maintenance-interval-ms:60000}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int released = outboxEventRepository.releaseStaleClaims(
+                    OutboxEvent.Status.PENDING,
+                    OutboxEvent.Status.IN_PROGRESS,
+                    now.minusNanos(claimTimeoutMs * 1_000_000L));
+            if (released > 0) {
+                log.warn("Released {} stale outbox claims", released);
+            }
+
+            outboxEventRepository.deleteProcessedBefore(OutboxEvent.Status.PROCESSED, now.minusDays(retentionDays));
+        });
+    }
+
+    // Claim, dispatch and acknowledge one batch; returns the number of events claimed
+    private int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(
+                    OutboxEvent.Status.PENDING, now, PageRequest.of(0, batchSize));
+
+            if (!due.isEmpty()) {
+                List<Long> ids = due.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+                outboxEventRepository.markClaimed(ids, OutboxEvent.Status.IN_PROGRESS, now);
+            }
+            return due;
+        });
+
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // One task per order keeps that order's events in id order
+        Map<Long, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>()).add(event);
+        }
+
+        List<Future<Map<Long, Failure>>> futures = new ArrayList<>(byAggregate.size());
+        for (List<OutboxEvent> events : byAggregate.values()) {
+            futures.add(executor.submit(() -> dispatch(events)));
+        }
+
+        Map<Long, Failure> failures = new LinkedHashMap<>();
+        for (Future<Map<Long, Failure>> future : futures) {
+            try {
+                failures.putAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0; // unacknowledged claims are released by maintain()
+            } catch (ExecutionException e) {
+                log.error("Outbox dispatch task failed", e.getCause());
+            }
+        }
+
+        List<Long> processedIds = batch.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !failures.containsKey(id))
+                .collect(Collectors.toList());
+
+        transactionTemplate.executeWithoutResult(status -> acknowledge(processedIds, failures));
+
+        return batch.size();
+    }
+
+    // Run each supporting handler not yet delivered for each event; returns the events with a failed handler
+    private Map<Long, Failure> dispatch(List<OutboxEvent> events) {
+        Map<Long, Failure> failures = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            Set<String> delivered = parseHandlers(event.getDeliveredHandlers());
+            String error = null;
+
+            Map<String, Object> payload;
+            try {
+                payload = objectMapper.readValue(event.getPayload(), new TypeReference<Map<String, Object>>() {});
+            } catch (Exception e) {
+                log.warn("Outbox event {} ({}) has an unreadable payload: {}", event.getId(), event.getIdempotencyKey(), e.getMessage());
+                failures.put(event.getId(), new Failure(String.valueOf(e.getMessage()), delivered));
+                continue;
+            }
+
+            // A failing handler does not stop the others; only it runs again on retry
+            for (OutboxEventHandler handler : handlers) {
+                String name = handlerName(handler);
+                if (!handler.supports(event.getEventType()) || delivered.contains(name)) {
+                    continue;
+                }
+                try {
+                    handler.handle(event, payload);
+                    delivered.add(name);
+                } catch (Exception e) {
+                    log.warn("Outbox event {} ({}) failed in {}: {}", event.getId(), event.getIdempotencyKey(), name, e.getMessage());
+                    if (error == null) {
+                        error = name + ": " + e.getMessage();
+                    }
+                }
+            }
+
+            if (error != null) {
+                failures.put(event.getId(), new Failure(error, delivered));
+            }
+        }
+
+        return failures;
+    }
+
+    private static String handlerName(OutboxEventHandler handler) {
+        return ClassUtils.getUserClass(handler).getSimpleName();
+    }
+
+    private static Set<String> parseHandlers(String value) {
+        Set<String> names = new LinkedHashSet<>();
+        if (value != null && !value.isEmpty()) {
+            names.addAll(Arrays.asList(value.split(",")));
+        }
+        return names;
+    }
+
+    private void acknowledge(List<Long> processedIds, Map<Long, Failure> failures) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!processedIds.isEmpty()) {
+            outboxEventRepository.markProcessed(processedIds, OutboxEvent.Status.PROCESSED, now);
+        }
+
+        if (failures.isEmpty()) {
+            return;
+        }
+
+        for (OutboxEvent event : outboxEventRepository.findAllById(failures.keySet())) {
+            int attempts = event.getAttempts() + 1;
+            Failure failure = failures.get(event.getId());
+            String error = failure.error;
+
+            event.setAttempts(attempts);
+            event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            event.setDeliveredHandlers(failure.delivered.isEmpty() ? null : String.join(",", failure.delivered));
+            event.setClaimedAt(null);
+
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.FAILED);
+            } else {
+                event.setStatus(OutboxEvent.Status.PENDING);
+                event.setAvailableAt(now.plusSeconds(Math.min(1L << Math.min(attempts, 20), MAX_BACKOFF_SECONDS)));
+            }
+        }
+    }
+
+    // First handler error of an event and the handlers that did succeed
+    private static class Failure {
+        final String error;
+        final Set<String> delivered;
+
+        Failure(String error, Set<String> delivered) {
+            this.error = error;
+            this.delivered = delivered;
+        }
+    }
+}
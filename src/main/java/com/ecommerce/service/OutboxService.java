@@ -0,0 +1,165 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.model.Payment;
+import com.ecommerce.repository.OrderBulkRepository;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Record that an order was placed (must run inside the order transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        Map<String, Object> payload = orderPayload(order);
+        payload.put("itemCount", order.getOrderItems().size());
+        record(OutboxEvent.EventType.ORDER_PLACED, order.getId(), "ORDER_PLACED:" + order.getId(), payload);
+    }
+    
+    // Record that an order was cancelled (must run inside the cancellation transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCancelled(Order order) {
+        Map<String, Object> payload = orderPayload(order);
+        payload.put("reason", order.getCancellationReason());
+        record(OutboxEvent.EventType.ORDER_CANCELLED, order.getId(), "ORDER_CANCELLED:" + order.getId(), payload);
+    }
+    
+    // Record one ORDER_CANCELLED event per order of a bulk cancellation (must run inside the bulk transaction).
+    // The orders were locked and moved to CANCELLED in that transaction, so each can only be cancelled once.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ordersCancelled(List<OrderBulkRepository.OrderState> orders, String reason) {
+        List<OutboxEvent> events = new ArrayList<>(orders.size());
+        
+        for (OrderBulkRepository.OrderState order : orders) {
+            Order.PaymentStatus paymentStatus = order.getPaymentStatus() == Order.PaymentStatus.PAID
+                    ? Order.PaymentStatus.REFUNDED : order.getPaymentStatus();
+            
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("orderId", order.getId());
+            payload.put("orderNumber", order.getOrderNumber());
+            payload.put("userId", order.getUserId());
+            payload.put("email", order.getShippingEmail());
+            payload.put("status", Order.OrderStatus.CANCELLED.name());
+            payload.put("paymentStatus", paymentStatus.name());
+            payload.put("totalAmount", order.getTotalAmount());
+            payload.put("reason", reason);
+            
+            events.add(newEvent(OutboxEvent.EventType.ORDER_CANCELLED, order.getId(),
+                    "ORDER_CANCELLED:" + order.getId(), payload));
+        }
+        
+        outboxEventRepository.saveAll(events);
+    }
+    
+    // Record that a payment was confirmed (must run inside the payment transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentConfirmed(Payment payment) {
+        Order order = payment.getOrder();
+        Map<String, Object> payload = orderPayload(order);
+        payload.put("paymentId", payment.getId());
+        payload.put("paymentIntentId", payment.getStripePaymentIntentId());
+        payload.put("amount", payment.getAmount());
+        payload.put("currency", payment.getCurrency());
+        record(OutboxEvent.EventType.PAYMENT_CONFIRMED, order.getId(), "PAYMENT_CONFIRMED:" + payment.getId(), payload);
+    }
+    
+    // Record that a successful payment was refunded (must run inside the refund transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRefunded(Payment payment) {
+        Order order = payment.getOrder();
+        Map<String, Object> payload = orderPayload(order);
+        payload.put("paymentId", payment.getId());
+        payload.put("refundAmount", payment.getRefundAmount());
+        record(OutboxEvent.EventType.PAYMENT_REFUNDED, order.getId(), "PAYMENT_REFUNDED:" + payment.getId(), payload);
+    }
+    
+    // Record an admin payment-status change into or out of PAID as the matching payment event, so the
+    // handlers fed by gateway payments (sales rollups, purchase cache) see it too (must run inside the order transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentStatusChanged(Order order, Order.PaymentStatus previousPaymentStatus) {
+        boolean paid = order.getPaymentStatus() == Order.PaymentStatus.PAID;
+        if (paid == (previousPaymentStatus == Order.PaymentStatus.PAID)) {
+            return;
+        }
+        
+        Map<String, Object> payload = orderPayload(order);
+        payload.put("amount", order.getTotalAmount());
+        if (paid) {
+            record(OutboxEvent.EventType.PAYMENT_CONFIRMED, order.getId(), "PAYMENT_CONFIRMED:ORDER:" + order.getId(), payload);
+        } else {
+            record(OutboxEvent.EventType.PAYMENT_REFUNDED, order.getId(), "PAYMENT_REFUNDED:ORDER:" + order.getId(), payload);
+        }
+    }
+    
+    // Record one event for a whole bulk status transition (must run inside the bulk transaction)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusBatch(String batchId, List<Map<String, Object>> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("batchId", batchId);
+        payload.put("transitions", transitions);
+        
+        Long aggregateId = ((Number) transitions.get(0).get("orderId")).longValue();
+        record(OutboxEvent.EventType.ORDER_STATUS_BATCH, aggregateId, "ORDER_STATUS_BATCH:" + batchId, payload);
+    }
+    
+    private void record(OutboxEvent.EventType type, Long aggregateId, String idempotencyKey, Map<String, Object> payload) {
+        // Re-confirming the same payment must not fail the business transaction
+        if (outboxEventRepository.existsByIdempotencyKey(idempotencyKey)) {
+            return;
+        }
+        
+        outboxEventRepository.save(newEvent(type, aggregateId, idempotencyKey, payload));
+    }
+    
+    private OutboxEvent newEvent(OutboxEvent.EventType type, Long aggregateId, String idempotencyKey,
+                                 Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateId(aggregateId);
+        event.setIdempotencyKey(idempotencyKey);
+        event.setPayload(toJson(payload));
+        return event;
+    }
+    
+    private Map<String, Object> orderPayload(Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser().getId());
+        payload.put("email", order.getShippingEmail());
+        payload.put("status", order.getStatus().name());
+        payload.put("paymentStatus", order.getPaymentStatus().name());
+        payload.put("totalAmount", order.getTotalAmount());
+        return payload;
+    }
+    
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+}
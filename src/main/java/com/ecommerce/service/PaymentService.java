@@ -34,6 +34,15 @@ public class PaymentService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+    
+    @Autowired
+    private PurchasedProductCache purchasedProductCache;
+    
     // Create payment intent (Step 1 of payment process)
     @Transactional
     public PaymentResponse createPaymentIntent(Long userId, CreatePaymentRequest request) {
@@ -103,11 +112,17 @@ public class PaymentService {
         
         // Update order payment status
         Order order = payment.getOrder();
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         order.setPaymentStatus(Order.PaymentStatus.PAID);
         order.setPaymentTransactionId(paymentIntentId);
         order.setStatus(Order.OrderStatus.CONFIRMED);
         orderRepository.save(order);
         
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        
+        outboxService.paymentConfirmed(payment);
+        
         return mapToResponse(payment);
     }
     
@@ -125,9 +140,13 @@ public class PaymentService {
         
         // Update order
         Order order = payment.getOrder();
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         order.setPaymentStatus(Order.PaymentStatus.FAILED);
         orderRepository.save(order);
         
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        
         return mapToResponse(payment);
     }
     
@@ -161,10 +180,16 @@ public class PaymentService {
         
         // Update order
         Order order = payment.getOrder();
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         order.setPaymentStatus(Order.PaymentStatus.REFUNDED);
         order.setStatus(Order.OrderStatus.REFUNDED);
         orderRepository.save(order);
         
+        userOrderStatsService.orderChanged(order, previousStatus, previousPaymentStatus);
+        purchasedProductCache.evictUser(order.getUser().getId());
+        outboxService.paymentRefunded(payment);
+        
         return mapToResponse(payment);
     }
     
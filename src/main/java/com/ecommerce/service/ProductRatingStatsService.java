@@ -0,0 +1,214 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.ProductRatingStats;
+import com.ecommerce.model.Review;
+import com.ecommerce.repository.ProductRatingStatsRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains product_rating_stats (count, rating sum, star histogram, verified and with-images
+ * counts over APPROVED reviews) by applying the difference between a review's state before and
+ * after each change, then copies average rating and review count onto the product row.
+ * Review summaries read the stats row only; products without one are rebuilt on first access.
+ */
+@Service
+public class ProductRatingStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductRatingStatsService.class);
+    
+    @Value("${app.review-stats.chunk-size:500}")
+    private int chunkSize;
+    
+    @Autowired
+    private ProductRatingStatsRepository productRatingStatsRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // ==================== WRITE HOOKS ====================
+    
+    // Apply one review transition; before is null for a new review, after is null for a deleted one
+    // (must run inside the transaction that changed the review)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewChanged(ReviewState before, ReviewState after) {
+        Map<Long, Delta> byProduct = new HashMap<>();
+        addTransition(byProduct, before, after);
+        apply(byProduct);
+    }
+    
+    // Apply many review transitions at once, one UPDATE per affected product
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewsChanged(List<ReviewTransition> transitions) {
+        Map<Long, Delta> byProduct = new HashMap<>();
+        for (ReviewTransition transition : transitions) {
+            addTransition(byProduct, transition.getBefore(), transition.getAfter());
+        }
+        apply(byProduct);
+    }
+    
+    // ==================== READS ====================
+    
+    // Stats row for a product, rebuilt from reviews on first access
+    @Transactional
+    public ProductRatingStats getStats(Long productId) {
+        return productRatingStatsRepository.findById(productId)
+                .orElseGet(() -> rebuildProduct(productId));
+    }
+    
+    // ==================== REBUILD ====================
+    
+    // Recompute one product's row from the reviews table
+    @Transactional
+    public ProductRatingStats rebuildProduct(Long productId) {
+        rebuild(List.of(productId));
+        return productRatingStatsRepository.findById(productId).orElseGet(() -> {
+            ProductRatingStats empty = new ProductRatingStats();
+            empty.setProductId(productId);
+            return empty;
+        });
+    }
+    
+    // Recompute every product, one chunk per transaction; returns products written
+    public long rebuildAll() {
+        long start = System.currentTimeMillis();
+        long products = 0;
+        Long afterId = 0L;
+        
+        while (true) {
+            List<Long> productIds = productRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (productIds.isEmpty()) {
+                break;
+            }
+            
+            transactionTemplate.executeWithoutResult(status -> rebuild(productIds));
+            
+            products += productIds.size();
+            afterId = productIds.get(productIds.size() - 1);
+            
+            if (productIds.size() < chunkSize) {
+                break;
+            }
+        }
+        
+        log.info("Rebuilt rating stats for {} products in {} ms", products, System.currentTimeMillis() - start);
+        return products;
+    }
+    
+    private void rebuild(Collection<Long> productIds) {
+        productRatingStatsRepository.rebuild(productIds);
+        productRatingStatsRepository.syncProducts(productIds);
+    }
+    
+    private static void addTransition(Map<Long, Delta> byProduct, ReviewState before, ReviewState after) {
+        if (before != null && before.counts()) {
+            byProduct.computeIfAbsent(before.productId, id -> new Delta()).add(before, -1);
+        }
+        if (after != null && after.counts()) {
+            byProduct.computeIfAbsent(after.productId, id -> new Delta()).add(after, 1);
+        }
+    }
+    
+    // Apply deltas, rebuilding from reviews when a product has no row yet
+    private void apply(Map<Long, Delta> byProduct) {
+        byProduct.forEach((productId, delta) -> {
+            if (delta.isEmpty()) {
+                return;
+            }
+            
+            int updated = productRatingStatsRepository.addDeltas(productId,
+                    delta.count, delta.sum,
+                    delta.stars[1], delta.stars[2], delta.stars[3], delta.stars[4], delta.stars[5],
+                    delta.verified, delta.withImages);
+            
+            if (updated == 0) {
+                // The aggregate query flushes pending review changes, so it already includes this one
+                productRatingStatsRepository.rebuild(List.of(productId));
+            }
+            productRatingStatsRepository.syncProducts(List.of(productId));
+        });
+    }
+    
+    // The parts of a review that feed the aggregates
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ReviewState {
+        private Long productId;
+        private Review.ReviewStatus status;
+        private int rating;
+        private boolean verified;
+        private boolean withImages;
+        
+        public static ReviewState of(Review review) {
+            return new ReviewState(
+                    review.getProduct().getId(),
+                    review.getStatus(),
+                    review.getRating(),
+                    Boolean.TRUE.equals(review.getVerifiedPurchase()),
+                    review.getHasImages() != null
+                            ? review.getHasImages()
+                            : review.getImages() != null && !review.getImages().isEmpty());
+        }
+        
+        boolean counts() {
+            return status == Review.ReviewStatus.APPROVED;
+        }
+    }
+    
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ReviewTransition {
+        private ReviewState before;
+        private ReviewState after;
+    }
+    
+    private static class Delta {
+        private long count;
+        private long sum;
+        private final long[] stars = new long[6];
+        private long verified;
+        private long withImages;
+        
+        void add(ReviewState state, int sign) {
+            count += sign;
+            sum += (long) sign * state.rating;
+            if (state.rating >= 1 && state.rating <= 5) {
+                stars[state.rating] += sign;
+            }
+            if (state.verified) {
+                verified += sign;
+            }
+            if (state.withImages) {
+                withImages += sign;
+            }
+        }
+        
+        boolean isEmpty() {
+            if (count != 0 || sum != 0 || verified != 0 || withImages != 0) {
+                return false;
+            }
+            for (long star : stars) {
+                if (star != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user set of products known to have been bought with a paid order, so verified-purchase
+ * checks can skip the database for repeat hits.
+ *
+ * Entries only record known purchases (sorted long[] per user, LRU-bounded, expiring): a miss
+ * is not proof of "not purchased" and callers fall back to the database. Entries are warmed from
+ * PAYMENT_CONFIRMED events and positive lookups, and dropped when one of the user's orders is
+ * refunded or cancelled on this node; the TTL bounds staleness from changes made on other nodes.
+ */
+@Component
+public class PurchasedProductCache {
+    
+    @Value("${app.reviews.purchase-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.reviews.purchase-cache.max-users:100000}")
+    private int maxUsers;
+    
+    @Value("${app.reviews.purchase-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+    
+    // Access-ordered, bounded
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+    
+    // True only if the purchase is known; false means "ask the database"
+    public boolean contains(Long userId, Long productId) {
+        if (!enabled) {
+            return false;
+        }
+        
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(userId);
+                return false;
+            }
+        }
+        return entry != null && Arrays.binarySearch(entry.productIds, productId) >= 0;
+    }
+    
+    public void add(Long userId, Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry current = entries.get(userId);
+            long[] merged = current != null && !current.isExpired(now)
+                    ? merge(current.productIds, productIds)
+                    : productIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            entries.put(userId, new Entry(merged, now + ttlMinutes * 60_000L));
+        }
+    }
+    
+    public void evictUser(Long userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+    
+    private static long[] merge(long[] existing, Collection<Long> added) {
+        long[] merged = Arrays.copyOf(existing, existing.length + added.size());
+        int i = existing.length;
+        for (Long productId : added) {
+            merged[i++] = productId;
+        }
+        return Arrays.stream(merged).sorted().distinct().toArray();
+    }
+    
+    private static class Entry {
+        private final long[] productIds;
+        private final long expiresAt;
+        
+        Entry(long[] productIds, long expiresAt) {
+            this.productIds = productIds;
+            this.expiresAt = expiresAt;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.BulkReviewModerationRequest;
+import com.ecommerce.model.Review;
+import com.ecommerce.repository.ReviewModerationRepository;
+import com.ecommerce.repository.ReviewRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Approves or rejects reviews in bulk, by id list or by a filter over the pending queue.
+ *
+ * Reviews are processed in chunks, each in its own transaction: the chunk's rows are locked with
+ * one SELECT ... FOR UPDATE, moved with one UPDATE, and the rating aggregates of every product in
+ * the chunk are adjusted once from the coalesced transitions in the same transaction. One NDJSON
+ * line per review is streamed back as each chunk commits, followed by a summary line.
+ */
+@Service
+public class ReviewModerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewModerationService.class);
+
+    @Value("${app.review-moderation.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductRatingStatsService productRatingStatsService;
+
+    @Autowired
+    private ReviewSearchIndex reviewSearchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Outcome {
+        APPLIED,
+        UNCHANGED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    // Validated request: target status plus either explicit ids or a pending-queue filter
+    public static class Plan {
+        private final Review.ReviewStatus target;
+        private final List<Long> reviewIds;
+        private final BulkReviewModerationRequest filter;
+
+        private Plan(Review.ReviewStatus target, List<Long> reviewIds, BulkReviewModerationRequest filter) {
+            this.target = target;
+            this.reviewIds = reviewIds;
+            this.filter = filter;
+        }
+    }
+
+    // Validate up front so bad requests fail before the response starts streaming
+    public Plan prepare(BulkReviewModerationRequest request) {
+        Review.ReviewStatus target;
+        switch (request.getAction().trim().toUpperCase(Locale.ROOT)) {
+            case "APPROVE":
+                target = Review.ReviewStatus.APPROVED;
+                break;
+            case "REJECT":
+                target = Review.ReviewStatus.REJECTED;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid moderation action: " + request.getAction());
+        }
+
+        boolean hasIds = request.getReviewIds() != null && !request.getReviewIds().isEmpty();
+        boolean hasFilter = request.getProductId() != null || request.getRating() != null
+                || request.getCreatedBefore() != null;
+
+        if (hasIds == hasFilter) {
+            throw new IllegalArgumentException("Specify either reviewIds or a filter (productId, rating, createdBefore)");
+        }
+
+        List<Long> reviewIds = hasIds ? new ArrayList<>(new LinkedHashSet<>(request.getReviewIds())) : null;
+        return new Plan(target, reviewIds, hasIds ? null : request);
+    }
+
+    // Moderate every review of the plan, streaming one NDJSON line per review; returns the summary
+    public Summary moderate(Plan plan, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        Summary summary = new Summary();
+        Set<Long> products = new HashSet<>();
+
+        if (plan.reviewIds != null) {
+            for (int from = 0; from < plan.reviewIds.size(); from += chunkSize) {
+                List<Long> chunk = plan.reviewIds.subList(from, Math.min(from + chunkSize, plan.reviewIds.size()));
+                writeResults(writer, moderateChunk(chunk, plan.target, products), summary);
+            }
+        } else {
+            BulkReviewModerationRequest filter = plan.filter;
+            Long afterId = 0L;
+            while (true) {
+                List<Long> chunk = reviewRepository.findPendingIdsAfter(afterId, filter.getProductId(),
+                        filter.getRating(), filter.getCreatedBefore(), PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                writeResults(writer, moderateChunk(chunk, plan.target, products), summary);
+
+                afterId = chunk.get(chunk.size() - 1);
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+
+        summary.setProductsUpdated(products.size());
+        writer.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        writer.write('\n');
+        writer.flush();
+
+        log.info("Bulk moderation to {}: {} requested, {} applied, {} failed, {} products in {} ms",
+                plan.target, summary.getRequested(), summary.getApplied(), summary.getFailed(),
+                summary.getProductsUpdated(), System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    // Moderate one chunk in its own transaction; a failed chunk is reported, not rethrown
+    private List<Result> moderateChunk(List<Long> reviewIds, Review.ReviewStatus target, Set<Long> products) {
+        Set<Long> chunkProducts = new HashSet<>();
+        try {
+            List<Result> results = transactionTemplate.execute(status -> applyChunk(reviewIds, target, chunkProducts));
+            products.addAll(chunkProducts);
+            return results;
+        } catch (RuntimeException e) {
+            log.error("Bulk moderation chunk of {} reviews failed", reviewIds.size(), e);
+            return reviewIds.stream()
+                    .map(id -> new Result(id, null, Outcome.FAILED, null))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<Result> applyChunk(List<Long> reviewIds, Review.ReviewStatus target, Set<Long> chunkProducts) {
+        Map<Long, ReviewModerationRepository.ModerationState> states = reviewRepository.lockStates(reviewIds)
+                .stream()
+                .collect(Collectors.toMap(ReviewModerationRepository.ModerationState::getId, Function.identity()));
+
+        List<Result> results = new ArrayList<>(reviewIds.size());
+        List<Long> changedIds = new ArrayList<>();
+        List<ProductRatingStatsService.ReviewTransition> transitions = new ArrayList<>();
+
+        for (Long reviewId : reviewIds) {
+            ReviewModerationRepository.ModerationState state = states.get(reviewId);
+
+            if (state == null) {
+                results.add(new Result(reviewId, null, Outcome.NOT_FOUND, null));
+                continue;
+            }
+            if (state.getStatus() == target) {
+                results.add(new Result(reviewId, state.getProductId(), Outcome.UNCHANGED, target.name()));
+                continue;
+            }
+
+            changedIds.add(reviewId);
+            chunkProducts.add(state.getProductId());
+            transitions.add(new ProductRatingStatsService.ReviewTransition(
+                    toReviewState(state, state.getStatus()), toReviewState(state, target)));
+            results.add(new Result(reviewId, state.getProductId(), Outcome.APPLIED, target.name()));
+        }
+
+        if (!changedIds.isEmpty()) {
+            reviewRepository.updateStatus(changedIds, target, LocalDateTime.now());
+
+            // One aggregate update per product in the chunk
+            productRatingStatsService.reviewsChanged(transitions);
+            reviewSearchIndex.productsChanged(chunkProducts);
+        }
+        return results;
+    }
+
+    private static ProductRatingStatsService.ReviewState toReviewState(
+            ReviewModerationRepository.ModerationState state, Review.ReviewStatus status) {
+        return new ProductRatingStatsService.ReviewState(
+                state.getProductId(), status, state.getRating(), state.isVerified(), state.isWithImages());
+    }
+
+    private void writeResults(Writer writer, List<Result> results, Summary summary) throws IOException {
+        for (Result result : results) {
+            summary.count(result.getOutcome());
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        // Let the client see each chunk as soon as it is committed
+        writer.flush();
+    }
+
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class Result {
+        private Long reviewId;
+        private Long productId;
+        private Outcome outcome;
+        private String status;
+    }
+
+    @lombok.Data
+    public static class Summary {
+        private long requested;
+        private long applied;
+        private long unchanged;
+        private long notFound;
+        private long failed;
+        private long productsUpdated;
+
+        void count(Outcome outcome) {
+            requested++;
+            switch (outcome) {
+                case APPLIED: applied++; break;
+                case UNCHANGED: unchanged++; break;
+                case NOT_FOUND: notFound++; break;
+                default: failed++;
+            }
+        }
+    }
+}
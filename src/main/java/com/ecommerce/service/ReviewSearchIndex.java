@@ -0,0 +1,423 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Review;
+import com.ecommerce.repository.ReviewRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over approved review titles and comments, one partition per product.
+ *
+ * A partition is loaded from the product's approved reviews on first use and then kept current
+ * by the moderation hooks (approve, reject, edit, delete), applied after commit so a rolled back
+ * change never reaches the index. Partitions are LRU-bounded and reloaded after a TTL, which
+ * bounds staleness from changes made on other nodes. Query terms match word prefixes and all
+ * terms must match; hits come back newest first with a highlighted snippet.
+ */
+@Component
+public class ReviewSearchIndex {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_LEAD = 50;
+    private static final int MIN_MENTION_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was",
+            "one", "our", "out", "has", "have", "him", "his", "how", "its", "may", "new", "now", "old",
+            "see", "two", "who", "did", "get", "got", "use", "she", "too", "very", "this", "that", "with",
+            "they", "them", "then", "than", "from", "just", "been", "were", "what", "when", "will", "would",
+            "your", "there", "their", "which", "about", "after", "also", "only", "some", "much", "more",
+            "really", "because", "product", "bought", "like");
+
+    @Value("${app.reviews.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reviews.search.max-products:5000}")
+    private int maxProducts;
+
+    @Value("${app.reviews.search.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    // Access-ordered, bounded
+    private final Map<Long, Partition> partitions = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Partition> eldest) {
+            return size() > maxProducts;
+        }
+    };
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Approved reviews of a product matching every query term, newest first
+    public SearchResult search(Long productId, String query, int page, int size) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(0, List.of());
+        }
+
+        Partition partition = partition(productId);
+        partition.lock.readLock().lock();
+        try {
+            List<Long> matches = partition.match(terms);
+
+            int from = Math.min(page * size, matches.size());
+            int to = Math.min(from + size, matches.size());
+
+            List<Hit> hits = new ArrayList<>(to - from);
+            for (Long reviewId : matches.subList(from, to)) {
+                hits.add(new Hit(reviewId, partition.snippet(reviewId, terms)));
+            }
+            return new SearchResult(matches.size(), hits);
+        } finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+
+    // Most frequent words across a product's approved reviews (document counts)
+    public List<Mention> topMentions(Long productId, int limit) {
+        Partition partition = partition(productId);
+        partition.lock.readLock().lock();
+        try {
+            List<Mention> mentions = new ArrayList<>();
+            partition.postings.forEach((term, reviewIds) -> {
+                if (term.length() >= MIN_MENTION_LENGTH && !STOP_WORDS.contains(term) && !isNumber(term)) {
+                    mentions.add(new Mention(term, reviewIds.size()));
+                }
+            });
+            mentions.sort(Comparator.comparingLong(Mention::getReviewCount).reversed()
+                    .thenComparing(Mention::getTerm));
+            return mentions.size() > limit ? new ArrayList<>(mentions.subList(0, limit)) : mentions;
+        } finally {
+            partition.lock.readLock().unlock();
+        }
+    }
+
+    // Index or unindex a review according to its status, once the current transaction commits
+    public void reviewChanged(Review review) {
+        Long productId = review.getProduct().getId();
+        Long reviewId = review.getId();
+
+        if (review.getStatus() != Review.ReviewStatus.APPROVED) {
+            afterCommit(() -> apply(productId, partition -> partition.remove(reviewId)));
+            return;
+        }
+
+        Document document = new Document(review.getTitle(), review.getComment(), review.getCreatedAt());
+        afterCommit(() -> apply(productId, partition -> partition.put(reviewId, document)));
+    }
+
+    public void reviewRemoved(Long productId, Long reviewId) {
+        afterCommit(() -> apply(productId, partition -> partition.remove(reviewId)));
+    }
+
+    // Drop the partitions of products changed in bulk once the transaction commits; they reload on next use
+    public void productsChanged(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        afterCommit(() -> ids.forEach(this::evictProduct));
+    }
+
+    public void evictProduct(Long productId) {
+        synchronized (partitions) {
+            partitions.remove(productId);
+        }
+    }
+
+    // Current partition of a product, loading it on first use or after expiry
+    private Partition partition(Long productId) {
+        long now = System.currentTimeMillis();
+        Partition partition;
+        synchronized (partitions) {
+            partition = partitions.get(productId);
+            if (partition == null || partition.isExpired(now)) {
+                partition = new Partition(now + ttlMinutes * 60_000L);
+                partitions.put(productId, partition);
+            }
+        }
+
+        // Loading holds the write lock, so searches wait for it and changes committed
+        // meanwhile are applied on top of the loaded state
+        if (!partition.loaded) {
+            partition.lock.writeLock().lock();
+            try {
+                if (!partition.loaded) {
+                    for (Object[] row : reviewRepository.findSearchDocumentsByProductId(productId)) {
+                        partition.put((Long) row[0], new Document((String) row[1], (String) row[2], (LocalDateTime) row[3]));
+                    }
+                    partition.loaded = true;
+                }
+            } finally {
+                partition.lock.writeLock().unlock();
+            }
+        }
+        return partition;
+    }
+
+    // Apply a change to a loaded partition; partitions not loaded yet will read it from the database
+    private void apply(Long productId, Consumer<Partition> change) {
+        Partition partition;
+        synchronized (partitions) {
+            partition = partitions.get(productId);
+        }
+        if (partition == null) {
+            return;
+        }
+
+        partition.lock.writeLock().lock();
+        try {
+            if (partition.loaded) {
+                change.accept(partition);
+            }
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Lower-cased words, in order, without duplicates
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static boolean matchesAny(String token, List<String> terms) {
+        for (String term : terms) {
+            if (token.startsWith(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNumber(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendEscaped(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                case '"': out.append("&quot;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    // Window of the text around the first match, HTML-escaped, matches wrapped in <em>;
+    // null if nothing in the text matches
+    static String highlight(String text, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+
+        Matcher matcher = WORD.matcher(text);
+        int firstMatch = -1;
+        while (matcher.find()) {
+            if (matchesAny(matcher.group().toLowerCase(Locale.ROOT), terms)) {
+                firstMatch = matcher.start();
+                break;
+            }
+        }
+        if (firstMatch < 0) {
+            return null;
+        }
+
+        int start = Math.max(0, firstMatch - SNIPPET_LEAD);
+        while (start > 0 && start < firstMatch && !Character.isWhitespace(text.charAt(start - 1))) {
+            start++;
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        while (end < text.length() && end > firstMatch && !Character.isWhitespace(text.charAt(end))) {
+            end--;
+        }
+        if (end <= firstMatch) {
+            end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        }
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append("...");
+        }
+
+        int position = start;
+        matcher.region(start, end);
+        while (matcher.find()) {
+            if (matchesAny(matcher.group().toLowerCase(Locale.ROOT), terms)) {
+                appendEscaped(snippet, text, position, matcher.start());
+                snippet.append("<em>");
+                appendEscaped(snippet, text, matcher.start(), matcher.end());
+                snippet.append("</em>");
+                position = matcher.end();
+            }
+        }
+        appendEscaped(snippet, text, position, end);
+
+        if (end < text.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    // One product's reviews: review id -> text, and word -> review ids (sorted for prefix lookups)
+    private static class Partition {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Document> documents = new HashMap<>();
+        final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+        final long expiresAt;
+        volatile boolean loaded;
+
+        Partition(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        void put(Long reviewId, Document document) {
+            remove(reviewId);
+            documents.put(reviewId, document);
+            for (String term : document.terms) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(reviewId);
+            }
+        }
+
+        void remove(Long reviewId) {
+            Document document = documents.remove(reviewId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms) {
+                Set<Long> reviewIds = postings.get(term);
+                if (reviewIds != null && reviewIds.remove(reviewId) && reviewIds.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        // Reviews containing a word starting with each term, newest first
+        List<Long> match(List<String> terms) {
+            Set<Long> result = null;
+            for (String term : terms) {
+                Set<Long> termMatches = new HashSet<>();
+                for (Set<Long> reviewIds : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                    termMatches.addAll(reviewIds);
+                }
+                if (result == null) {
+                    result = termMatches;
+                } else {
+                    result.retainAll(termMatches);
+                }
+                if (result.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Long> ordered = new ArrayList<>(result);
+            ordered.sort(Comparator.comparing((Long id) -> documents.get(id).createdAt,
+                            Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Comparator.reverseOrder()));
+            return ordered;
+        }
+
+        String snippet(Long reviewId, List<String> terms) {
+            Document document = documents.get(reviewId);
+            String snippet = highlight(document.comment, terms);
+            return snippet != null ? snippet : highlight(document.title, terms);
+        }
+    }
+
+    private static class Document {
+        final String title;
+        final String comment;
+        final LocalDateTime createdAt;
+        final String[] terms;
+
+        Document(String title, String comment, LocalDateTime createdAt) {
+            this.title = title;
+            this.comment = comment;
+            this.createdAt = createdAt;
+
+            Set<String> words = new HashSet<>(tokenize(title));
+            words.addAll(tokenize(comment));
+            this.terms = words.toArray(new String[0]);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Hit {
+        private Long reviewId;
+        private String snippet;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchResult {
+        private long total;
+        private List<Hit> hits;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Mention {
+        private String term;
+        private long reviewCount;
+    }
+}
@@ -4,15 +4,19 @@ import com.ecommerce.dto.*;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.*;
+import com.ecommerce.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +25,10 @@ import java.util.stream.Collectors;
 @Service
 public class ReviewService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+    
     @Autowired
     private ReviewRepository reviewRepository;
     
@@ -36,6 +44,24 @@ public class ReviewService {
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+    
+    @Autowired
+    private ProductRatingStatsService productRatingStatsService;
+    
+    @Autowired
+    private PurchasedProductCache purchasedProductCache;
+    
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+    
+    @Autowired
+    private ReviewSearchIndex reviewSearchIndex;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     // Create review
     @Transactional
     public ReviewResponse createReview(Long userId, CreateReviewRequest request) {
@@ -68,8 +94,8 @@ public class ReviewService {
         
         review = reviewRepository.save(review);
         
-        // Update product average rating and review count
-        updateProductRating(request.getProductId());
+        // Update product rating aggregates
+        productRatingStatsService.reviewChanged(null, ProductRatingStatsService.ReviewState.of(review));
         
         return mapToResponse(review, userId);
     }
@@ -77,7 +103,7 @@ public class ReviewService {
     // Update review
     @Transactional
     public ReviewResponse updateReview(Long userId, Long reviewId, UpdateReviewRequest request) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
         // Verify review belongs to user
@@ -85,6 +111,8 @@ public class ReviewService {
             throw new IllegalStateException("Access denied");
         }
         
+        ProductRatingStatsService.ReviewState before = ProductRatingStatsService.ReviewState.of(review);
+        
         // Update fields
         review.setRating(request.getRating());
         review.setTitle(request.getTitle());
@@ -94,8 +122,9 @@ public class ReviewService {
         
         review = reviewRepository.save(review);
         
-        // Update product average rating
-        updateProductRating(review.getProduct().getId());
+        // Update product rating aggregates and the search index
+        productRatingStatsService.reviewChanged(before, ProductRatingStatsService.ReviewState.of(review));
+        reviewSearchIndex.reviewChanged(review);
         
         return mapToResponse(review, userId);
     }
@@ -103,7 +132,7 @@ public class ReviewService {
     // Delete review
     @Transactional
     public void deleteReview(Long userId, Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
         // Verify review belongs to user
@@ -111,12 +140,13 @@ public class ReviewService {
             throw new IllegalStateException("Access denied");
         }
         
-        Long productId = review.getProduct().getId();
+        ProductRatingStatsService.ReviewState before = ProductRatingStatsService.ReviewState.of(review);
         
         reviewRepository.delete(review);
         
-        // Update product average rating
-        updateProductRating(productId);
+        // Update product rating aggregates and the search index
+        productRatingStatsService.reviewChanged(before, null);
+        reviewSearchIndex.reviewRemoved(review.getProduct().getId(), reviewId);
     }
     
     // Get review by ID
@@ -130,8 +160,9 @@ public class ReviewService {
     // Get reviews for a product
     public Page<ReviewResponse> getProductReviews(Long productId, Long currentUserId, int page, int size, String sortBy) {
         // Verify product exists
-        productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
         
         Pageable pageable;
         
@@ -152,62 +183,88 @@ public class ReviewService {
                 pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         }
         
-        Page<Review> reviews = reviewRepository.findByProductIdAndStatus(
+        Page<ReviewListItem> reviews = reviewRepository.findListItemsByProduct(
                 productId, Review.ReviewStatus.APPROVED, pageable);
         
-        return reviews.map(review -> mapToResponse(review, currentUserId));
+        return toResponsePage(reviews, currentUserId);
     }
     
     // Get reviews by rating
     public Page<ReviewResponse> getProductReviewsByRating(Long productId, Integer rating, Long currentUserId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.findByProductIdAndStatusAndRating(
+        Page<ReviewListItem> reviews = reviewRepository.findListItemsByProductAndRating(
                 productId, Review.ReviewStatus.APPROVED, rating, pageable);
         
-        return reviews.map(review -> mapToResponse(review, currentUserId));
+        return toResponsePage(reviews, currentUserId);
     }
     
     // Get verified purchase reviews
     public Page<ReviewResponse> getVerifiedPurchaseReviews(Long productId, Long currentUserId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.findByProductIdAndStatusAndVerifiedPurchase(
-                productId, Review.ReviewStatus.APPROVED, true, pageable);
+        Page<ReviewListItem> reviews = reviewRepository.findVerifiedListItemsByProduct(
+                productId, Review.ReviewStatus.APPROVED, pageable);
         
-        return reviews.map(review -> mapToResponse(review, currentUserId));
+        return toResponsePage(reviews, currentUserId);
     }
     
     // Get reviews with images
     public Page<ReviewResponse> getReviewsWithImages(Long productId, Long currentUserId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.findByProductIdWithImages(productId, pageable);
+        Page<ReviewListItem> reviews = reviewRepository.findByProductIdWithImages(productId, pageable);
         
-        return reviews.map(review -> mapToResponse(review, currentUserId));
+        return toResponsePage(reviews, currentUserId);
     }
     
     // Get most helpful reviews
     public List<ReviewResponse> getMostHelpfulReviews(Long productId, Long currentUserId, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        List<Review> reviews = reviewRepository.findMostHelpfulByProductId(productId, pageable);
+        List<ReviewListItem> reviews = reviewRepository.findMostHelpfulByProductId(productId, pageable);
         
-        return reviews.stream()
-                .map(review -> mapToResponse(review, currentUserId))
-                .collect(Collectors.toList());
+        return toResponses(reviews, currentUserId);
     }
     
     // Search reviews
     public Page<ReviewResponse> searchReviews(Long productId, String keyword, Long currentUserId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.searchReviewsByProductId(productId, keyword, pageable);
         
-        return reviews.map(review -> mapToResponse(review, currentUserId));
+        if (!reviewSearchIndex.isEnabled()) {
+            Page<ReviewListItem> reviews = reviewRepository.searchReviewsByProductId(productId, keyword, pageable);
+            return toResponsePage(reviews, currentUserId);
+        }
+        
+        // Matches and snippets come from the index; only the page of hits is loaded, by primary key
+        ReviewSearchIndex.SearchResult result = reviewSearchIndex.search(productId, keyword, page, size);
+        
+        List<Long> ids = result.getHits().stream().map(ReviewSearchIndex.Hit::getReviewId).collect(Collectors.toList());
+        Map<Long, ReviewResponse> responsesById = new HashMap<>();
+        for (ReviewResponse response : toResponses(reviewRepository.findListItemsByIds(ids), currentUserId)) {
+            responsesById.put(response.getId(), response);
+        }
+        
+        List<ReviewResponse> content = new ArrayList<>(ids.size());
+        for (ReviewSearchIndex.Hit hit : result.getHits()) {
+            ReviewResponse response = responsesById.get(hit.getReviewId());
+            if (response == null || !Review.ReviewStatus.APPROVED.name().equals(response.getStatus())) {
+                continue; // changed on another node since this node's partition was loaded
+            }
+            response.setSnippet(hit.getSnippet());
+            content.add(response);
+        }
+        
+        return new PageImpl<>(content, pageable, result.getTotal());
+    }
+    
+    // Most mentioned words in a product's approved reviews
+    public List<ReviewSearchIndex.Mention> getTopMentions(Long productId, int limit) {
+        return reviewSearchIndex.topMentions(productId, limit);
     }
     
     // Get user's reviews
     public Page<ReviewResponse> getUserReviews(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.findByUserId(userId, pageable);
+        Page<ReviewListItem> reviews = reviewRepository.findListItemsByUser(userId, pageable);
         
-        return reviews.map(review -> mapToResponse(review, userId));
+        return toResponsePage(reviews, userId);
     }
     
     // Get product review summary
@@ -219,31 +276,26 @@ public class ReviewService {
         summary.setProductId(productId);
         summary.setProductName(product.getName());
         
-        // Total reviews
-        Long totalReviews = reviewRepository.countByProductIdAndStatus(productId, Review.ReviewStatus.APPROVED);
-        summary.setTotalReviews(totalReviews);
-        
-        // Average rating
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        summary.setAverageRating(averageRating != null ? averageRating : 0.0);
+        // All counts come from the maintained aggregates row
+        ProductRatingStats stats = productRatingStatsService.getStats(productId);
+        summary.setTotalReviews(stats.getReviewCount());
+        summary.setAverageRating(stats.getAverageRating());
         
         // Rating distribution
-        List<Object[]> distribution = reviewRepository.getRatingDistributionByProductId(productId);
         Map<Integer, Long> ratingDistribution = new HashMap<>();
-        for (Object[] row : distribution) {
-            ratingDistribution.put((Integer) row[0], (Long) row[1]);
+        for (int rating = 5; rating >= 1; rating--) {
+            long count = stats.getStarCount(rating);
+            if (count > 0) {
+                ratingDistribution.put(rating, count);
+            }
         }
         summary.setRatingDistribution(ratingDistribution);
         
         // Calculate percentages
         summary.calculatePercentages();
         
-        // Verified purchase count
-        Long verifiedCount = totalReviews; // Simplified - can add specific query
-        summary.setVerifiedPurchaseCount(verifiedCount);
-        
-        // Reviews with images
-        summary.setReviewsWithImages(0L); // Simplified - can add specific query
+        summary.setVerifiedPurchaseCount(stats.getVerifiedCount());
+        summary.setReviewsWithImages(stats.getWithImagesCount());
         
         return summary;
     }
@@ -254,10 +306,12 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
-        review.incrementHelpfulCount();
-        review = reviewRepository.save(review);
+        // One vote per user; the counter itself is updated by the next batched flush
+        reviewVoteService.vote(userId, reviewId, true);
         
-        return mapToResponse(review, userId);
+        ReviewResponse response = mapToResponse(review, userId);
+        response.setMarkedHelpfulByCurrentUser(true);
+        return response;
     }
     
     // Mark review as not helpful
@@ -266,23 +320,28 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
-        review.incrementNotHelpfulCount();
-        review = reviewRepository.save(review);
+        // One vote per user; the counter itself is updated by the next batched flush
+        reviewVoteService.vote(userId, reviewId, false);
         
-        return mapToResponse(review, userId);
+        ReviewResponse response = mapToResponse(review, userId);
+        response.setMarkedHelpfulByCurrentUser(false);
+        return response;
     }
     
     // Admin: Approve review
     @Transactional
     public ReviewResponse approveReview(Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
+        ProductRatingStatsService.ReviewState before = ProductRatingStatsService.ReviewState.of(review);
+        
         review.setStatus(Review.ReviewStatus.APPROVED);
         review = reviewRepository.save(review);
         
-        // Update product rating
-        updateProductRating(review.getProduct().getId());
+        // Update product rating aggregates and the search index
+        productRatingStatsService.reviewChanged(before, ProductRatingStatsService.ReviewState.of(review));
+        reviewSearchIndex.reviewChanged(review);
         
         return mapToResponse(review, null);
     }
@@ -290,14 +349,17 @@ public class ReviewService {
     // Admin: Reject review
     @Transactional
     public ReviewResponse rejectReview(Long reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        Review review = reviewRepository.findByIdForUpdate(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
         
+        ProductRatingStatsService.ReviewState before = ProductRatingStatsService.ReviewState.of(review);
+        
         review.setStatus(Review.ReviewStatus.REJECTED);
         review = reviewRepository.save(review);
         
-        // Update product rating
-        updateProductRating(review.getProduct().getId());
+        // Update product rating aggregates and the search index
+        productRatingStatsService.reviewChanged(before, ProductRatingStatsService.ReviewState.of(review));
+        reviewSearchIndex.reviewChanged(review);
         
         return mapToResponse(review, null);
     }
@@ -318,31 +380,112 @@ public class ReviewService {
     // Admin: Get pending reviews
     public Page<ReviewResponse> getPendingReviews(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Review> reviews = reviewRepository.findByStatus(Review.ReviewStatus.PENDING, pageable);
+        Page<ReviewListItem> reviews = reviewRepository.findListItemsByStatus(Review.ReviewStatus.PENDING, pageable);
         
-        return reviews.map(review -> mapToResponse(review, null));
+        return toResponsePage(reviews, null);
+    }
+    
+    // Admin: Get pending reviews by keyset on (createdAt, id), newest first; cursor is null for the first page
+    public CursorPage<ReviewResponse> getPendingReviewsPage(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<ReviewListItem> reviews = after == null
+                ? reviewRepository.findListItemsByStatusFirstPage(Review.ReviewStatus.PENDING, limit)
+                : reviewRepository.findListItemsByStatusPageAfter(Review.ReviewStatus.PENDING, after.getTimestamp(), after.getId(), limit);
+        
+        boolean hasMore = reviews.size() > pageSize;
+        if (hasMore) {
+            reviews = reviews.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            ReviewListItem last = reviews.get(reviews.size() - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return new CursorPage<>(toResponses(reviews, null), nextCursor, hasMore);
+    }
+    
+    // Admin: Fill the has-images flag of reviews written before it existed, one chunk per transaction
+    public long backfillHasImages() {
+        long updated = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> reviewRepository.backfillHasImages(BACKFILL_CHUNK_SIZE));
+            updated += chunk != null ? chunk : 0;
+            if (chunk == null || chunk < BACKFILL_CHUNK_SIZE) {
+                return updated;
+            }
+        }
     }
     
     // Helper: Check if user purchased product
     private boolean hasUserPurchasedProduct(Long userId, Long productId) {
-        List<OrderItem> orderItems = orderItemRepository.findByProductId(productId);
-        return orderItems.stream()
-                .anyMatch(item -> item.getOrder().getUser().getId().equals(userId) 
-                        && item.getOrder().getPaymentStatus() == Order.PaymentStatus.PAID);
+        if (purchasedProductCache.contains(userId, productId)) {
+            return true;
+        }
+        
+        // Indexed EXISTS over the user's paid orders; older purchases may have been archived
+        boolean purchased = orderItemRepository.existsPaidPurchase(userId, productId)
+                || archivedOrderItemRepository.existsPaidPurchase(userId, productId);
+        
+        if (purchased) {
+            purchasedProductCache.add(userId, List.of(productId));
+        }
+        return purchased;
     }
     
-    // Helper: Update product average rating and review count
-    private void updateProductRating(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-        
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        Long reviewCount = reviewRepository.countByProductIdAndStatus(productId, Review.ReviewStatus.APPROVED);
+    private static long countOrZero(Integer count) {
+        return count != null ? count : 0L;
+    }
+    
+    private Page<ReviewResponse> toResponsePage(Page<ReviewListItem> items, Long currentUserId) {
+        return new PageImpl<>(toResponses(items.getContent(), currentUserId), items.getPageable(), items.getTotalElements());
+    }
+    
+    // Helper: Map listing rows to responses, fetching the images of the whole page in one query
+    private List<ReviewResponse> toResponses(List<ReviewListItem> items, Long currentUserId) {
+        List<Long> withImages = items.stream()
+                .filter(item -> !Boolean.FALSE.equals(item.getHasImages()))
+                .map(ReviewListItem::getId)
+                .collect(Collectors.toList());
         
-        product.setAverageRating(averageRating != null ? averageRating : 0.0);
-        product.setReviewCount(reviewCount.intValue());
+        Map<Long, List<String>> imagesByReview = new HashMap<>();
+        if (!withImages.isEmpty()) {
+            for (Object[] row : reviewRepository.findImagesByReviewIds(withImages)) {
+                imagesByReview.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
         
-        productRepository.save(product);
+        List<ReviewResponse> responses = new ArrayList<>(items.size());
+        for (ReviewListItem item : items) {
+            ReviewResponse response = new ReviewResponse();
+            response.setId(item.getId());
+            response.setUserId(item.getUserId());
+            response.setUserName(item.getUserName());
+            response.setProductId(item.getProductId());
+            response.setProductName(item.getProductName());
+            response.setRating(item.getRating());
+            response.setTitle(item.getTitle());
+            response.setComment(item.getComment());
+            response.setVerifiedPurchase(item.getVerifiedPurchase());
+            response.setImages(imagesByReview.getOrDefault(item.getId(), new ArrayList<>()));
+            
+            // Stored counters plus votes not yet flushed
+            long[] pending = reviewVoteService.pendingCounts(item.getId());
+            response.setHelpfulCount((int) (countOrZero(item.getHelpfulCount()) + pending[0]));
+            response.setNotHelpfulCount((int) (countOrZero(item.getNotHelpfulCount()) + pending[1]));
+            
+            response.setStatus(item.getStatus().name());
+            response.setAdminResponse(item.getAdminResponse());
+            response.setAdminResponseAt(item.getAdminResponseAt());
+            response.setCreatedAt(item.getCreatedAt());
+            response.setUpdatedAt(item.getUpdatedAt());
+            responses.add(response);
+        }
+        return responses;
     }
     
     // Helper: Map Review to ReviewResponse
@@ -358,8 +501,12 @@ public class ReviewService {
         response.setComment(review.getComment());
         response.setVerifiedPurchase(review.getVerifiedPurchase());
         response.setImages(review.getImages());
-        response.setHelpfulCount(review.getHelpfulCount());
-        response.setNotHelpfulCount(review.getNotHelpfulCount());
+        
+        // Stored counters plus votes not yet flushed
+        long[] pending = reviewVoteService.pendingCounts(review.getId());
+        response.setHelpfulCount((int) (countOrZero(review.getHelpfulCount()) + pending[0]));
+        response.setNotHelpfulCount((int) (countOrZero(review.getNotHelpfulCount()) + pending[1]));
+        
         response.setStatus(review.getStatus().name());
         response.setAdminResponse(review.getAdminResponse());
         response.setAdminResponseAt(review.getAdminResponseAt());
@@ -0,0 +1,240 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.ReviewRepository;
+import com.ecommerce.repository.ReviewVoteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helpful / not-helpful votes with one vote per user and write-behind counters.
+ *
+ * The vote row (primary key review_id, user_id) is the source of truth for "already voted";
+ * a per-review voter set in memory turns away repeat votes without a round-trip. Counter
+ * deltas go to striped accumulators (stripe picked by thread, each its own small map and lock)
+ * and are flushed periodically as one batch of relative UPDATEs, so a hot review takes one row
+ * write per flush instead of one per vote. Reads add the deltas not yet flushed by this node.
+ * A new vote reaches the voter set and the counters only once its transaction commits.
+ */
+@Service
+public class ReviewVoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewVoteService.class);
+
+    private static final int STRIPES = 16;
+
+    @Value("${app.reviews.votes.voter-cache-reviews:10000}")
+    private int voterCacheReviews;
+
+    @Autowired
+    private ReviewVoteRepository reviewVoteRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Voters seen by this node per review (access-ordered, bounded)
+    private final Map<Long, VoterSet> voters = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, VoterSet> eldest) {
+            return size() > voterCacheReviews;
+        }
+    };
+
+    public ReviewVoteService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // Record a vote; throws IllegalStateException if the user already voted on the review
+    // (must run inside a transaction; the counter change is flushed later)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void vote(Long userId, Long reviewId, boolean helpful) {
+        if (isKnownVoter(reviewId, userId)) {
+            throw new IllegalStateException("You have already voted on this review");
+        }
+
+        boolean recorded = reviewVoteRepository.insertIfAbsent(reviewId, userId, helpful, LocalDateTime.now()) == 1;
+
+        if (!recorded) {
+            // The existing row belongs to a committed vote
+            rememberVoter(reviewId, userId);
+            throw new IllegalStateException("You have already voted on this review");
+        }
+
+        // A rolled-back vote must neither count nor mark the user as having voted
+        afterCommit(() -> {
+            rememberVoter(reviewId, userId);
+            stripeForCurrentThread().add(reviewId, helpful ? 1 : 0, helpful ? 0 : 1);
+        });
+    }
+
+    // Unflushed {helpful, notHelpful} deltas of a review on this node
+    public long[] pendingCounts(Long reviewId) {
+        long[] total = new long[2];
+        for (Stripe stripe : stripes) {
+            stripe.addPendingTo(reviewId, total);
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reviews.votes.flush-interval-ms:2000}")
+    public void flush() {
+        Map<Long, long[]> merged = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.drainInto(merged);
+        }
+
+        if (merged.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> reviewRepository.addVoteCounts(merged));
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next flush
+            log.warn("Flushing vote counts for {} reviews failed: {}", merged.size(), e.getMessage());
+            Stripe stripe = stripes[0];
+            merged.forEach((reviewId, deltas) -> stripe.add(reviewId, deltas[0], deltas[1]));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean isKnownVoter(Long reviewId, Long userId) {
+        synchronized (voters) {
+            VoterSet set = voters.get(reviewId);
+            return set != null && set.contains(userId);
+        }
+    }
+
+    private void rememberVoter(Long reviewId, Long userId) {
+        synchronized (voters) {
+            voters.computeIfAbsent(reviewId, id -> new VoterSet()).add(userId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Stripe stripeForCurrentThread() {
+        return stripes[(int) (Thread.currentThread().getId() & (STRIPES - 1))];
+    }
+
+    // One accumulator stripe: review id -> {helpful, notHelpful}, swapped out whole on flush
+    private static class Stripe {
+        private Map<Long, long[]> deltas = new HashMap<>();
+
+        synchronized void add(Long reviewId, long helpful, long notHelpful) {
+            long[] counts = deltas.computeIfAbsent(reviewId, id -> new long[2]);
+            counts[0] += helpful;
+            counts[1] += notHelpful;
+        }
+
+        synchronized void addPendingTo(Long reviewId, long[] total) {
+            long[] counts = deltas.get(reviewId);
+            if (counts != null) {
+                total[0] += counts[0];
+                total[1] += counts[1];
+            }
+        }
+
+        void drainInto(Map<Long, long[]> merged) {
+            Map<Long, long[]> drained;
+            synchronized (this) {
+                if (deltas.isEmpty()) {
+                    return;
+                }
+                drained = deltas;
+                deltas = new HashMap<>();
+            }
+            drained.forEach((reviewId, counts) -> {
+                long[] total = merged.computeIfAbsent(reviewId, id -> new long[2]);
+                total[0] += counts[0];
+                total[1] += counts[1];
+            });
+        }
+    }
+
+    // Open-addressing set of user ids (no boxing; 8 bytes per slot)
+    private static class VoterSet {
+        private static final long EMPTY = 0L;
+
+        private long[] slots = new long[8];
+        private int size;
+
+        boolean contains(long userId) {
+            int mask = slots.length - 1;
+            for (int i = mix(userId) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+                if (slots[i] == userId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long userId) {
+            if (userId == EMPTY || contains(userId)) {
+                return;
+            }
+            if ((size + 1) * 2 > slots.length) {
+                long[] old = slots;
+                slots = new long[old.length * 2];
+                size = 0;
+                for (long id : old) {
+                    if (id != EMPTY) {
+                        insert(id);
+                    }
+                }
+            }
+            insert(userId);
+        }
+
+        private void insert(long userId) {
+            int mask = slots.length - 1;
+            int i = mix(userId) & mask;
+            while (slots[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = userId;
+            size++;
+        }
+
+        private static int mix(long value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
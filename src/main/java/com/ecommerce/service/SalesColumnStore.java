@@ -0,0 +1,564 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderLineFact;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * In-process columnar snapshot of order lines for admin reporting.
+ *
+ * Each line of a paid order is one row across primitive columns (day index, product,
+ * category and brand codes, quantity, amount in cents, order id); about 36 bytes per line.
+ * Products, categories and brands are dictionary-encoded so group-bys accumulate into dense
+ * long[] arrays, one set per fork-join chunk, merged at the end. Reports never touch the database.
+ *
+ * A background refresh looks at orders changed since the last scan (with an overlap window): it
+ * appends the lines of newly paid orders (de-duplicated by order id), excludes the lines of orders
+ * whose payment left PAID (cancelled, refunded or reset) and restores orders paid again; a nightly
+ * full reload picks up archived orders and renamed or re-categorised products. Readers work on
+ * an immutable Snapshot published through a volatile field: appends only write past the
+ * published row count, and the excluded bitset is copied before it is changed.
+ */
+@Service
+public class SalesColumnStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesColumnStore.class);
+
+    private static final String UNKNOWN_BRAND = "UNKNOWN";
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    @Value("${app.analytics.column-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.column-store.overlap-minutes:5}")
+    private long overlapMinutes;
+
+    @Value("${app.analytics.column-store.chunk-rows:262144}")
+    private int chunkRows;
+
+    @Value("${app.analytics.max-range-days:1100}")
+    private long maxRangeDays;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Writer state, guarded by this
+    private Columns columns;
+    private LocalDateTime lastScanAt;
+
+    // Metrics
+    private volatile long lastRefreshDurationMs;
+    private volatile LocalDateTime lastRefreshAt;
+    private volatile long lastFullLoadDurationMs;
+    private volatile LocalDateTime lastFullLoadAt;
+
+    public enum GroupBy {
+        PRODUCT,
+        CATEGORY,
+        BRAND,
+        DAY
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.column-store.refresh-interval-ms:60000}",
+               initialDelayString = "${app.analytics.column-store.initial-delay-ms:30000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.column-store.reload-cron:0 45 4 * * *}")
+    public void scheduledReload() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Pick up orders paid, unpaid or paid again since the last scan (full load on first use)
+    public synchronized void refresh() {
+        if (columns == null) {
+            reload();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime scanAt = LocalDateTime.now();
+        LocalDateTime from = lastScanAt.minusMinutes(overlapMinutes);
+        int before = columns.size;
+
+        List<Long> alreadyLoaded = new ArrayList<>();
+        orderItemRepository.scanLines(false, from, fact -> columns.appendNew(fact, alreadyLoaded));
+
+        // Loaded orders seen paid again are restored if they had been excluded
+        int restored = setExcluded(alreadyLoaded, false);
+        int excluded = setExcluded(orderRepository.findUnpaidIdsChangedSince(from), true);
+
+        lastScanAt = scanAt;
+
+        snapshot = columns.publish();
+        lastRefreshDurationMs = System.currentTimeMillis() - start;
+        lastRefreshAt = LocalDateTime.now();
+
+        if (columns.size > before || restored > 0 || excluded > 0) {
+            log.debug("Column store appended {} lines, excluded {} and restored {} lines",
+                    columns.size - before, excluded, restored);
+        }
+    }
+
+    // Rebuild the whole snapshot from live and archived orders; the previous snapshot serves reads meanwhile
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        LocalDateTime scanAt = LocalDateTime.now();
+
+        Columns loaded = new Columns();
+        orderItemRepository.scanLines(true, null, loaded::append);
+        orderItemRepository.scanLines(false, null, loaded::append);
+
+        columns = loaded;
+        lastScanAt = scanAt;
+
+        // Orders whose payment left PAID while the scan was running
+        setExcluded(orderRepository.findUnpaidIdsChangedSince(scanAt.minusMinutes(overlapMinutes)), true);
+
+        snapshot = columns.publish();
+        lastFullLoadDurationMs = System.currentTimeMillis() - start;
+        lastFullLoadAt = LocalDateTime.now();
+        lastRefreshDurationMs = lastFullLoadDurationMs;
+        lastRefreshAt = lastFullLoadAt;
+
+        log.info("Column store loaded {} order lines in {} ms", columns.size, lastFullLoadDurationMs);
+    }
+
+    /**
+     * Units, revenue and order count per product, category, brand or day for [from, to],
+     * optionally restricted to one category. Days come back in date order, other groups by
+     * revenue (highest first), cut to limit.
+     */
+    public List<Group> groupBy(GroupBy groupBy, LocalDate from, LocalDate to, Long categoryId, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxRangeDays + " days");
+        }
+
+        Snapshot view = snapshot;
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+
+        int categoryCode = -1;
+        if (categoryId != null) {
+            categoryCode = view.categoryCode(categoryId);
+            if (categoryCode < 0) {
+                return new ArrayList<>();
+            }
+        }
+
+        int keyCount = groupBy == GroupBy.DAY ? toDay - fromDay + 1 : view.keyCount(groupBy);
+        int[] bounds = view.chunkBounds(chunkRows);
+        int filterCategory = categoryCode;
+
+        Accumulator total = IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(chunk -> view.scan(groupBy, bounds[chunk], bounds[chunk + 1],
+                        fromDay, toDay, filterCategory, keyCount))
+                .reduce(Accumulator::merge)
+                .orElseGet(() -> new Accumulator(keyCount));
+
+        List<Group> groups = new ArrayList<>();
+        for (int key = 0; key < keyCount; key++) {
+            if (total.lines[key] == 0) {
+                continue;
+            }
+            groups.add(new Group(
+                    view.key(groupBy, key, fromDay),
+                    view.label(groupBy, key, fromDay),
+                    total.orders[key],
+                    total.units[key],
+                    Money.toBigDecimal(total.cents[key]),
+                    Money.toBigDecimal(total.cents[key])
+                            .divide(BigDecimal.valueOf(total.orders[key]), 2, RoundingMode.HALF_UP)));
+        }
+
+        if (groupBy != GroupBy.DAY) {
+            groups.sort(Comparator.comparing(Group::getRevenue).reversed());
+            if (groups.size() > limit) {
+                groups = new ArrayList<>(groups.subList(0, limit));
+            }
+        }
+        return groups;
+    }
+
+    public StoreStats getStats() {
+        Snapshot view = snapshot;
+        return new StoreStats(
+                lastFullLoadAt != null,
+                (long) view.size,
+                (long) view.excluded.cardinality(),
+                view.productCount,
+                view.categoryCount,
+                view.brandCount,
+                lastRefreshDurationMs,
+                lastRefreshAt,
+                lastFullLoadDurationMs,
+                lastFullLoadAt
+        );
+    }
+
+    // Exclude (or restore) the lines of the given orders; returns the number of lines changed
+    private int setExcluded(List<Long> orderIds, boolean exclude) {
+        long[] sorted = orderIds.stream()
+                .mapToLong(Long::longValue)
+                .filter(columns::hasOrder)
+                .sorted()
+                .toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        BitSet excluded = (BitSet) columns.excluded.clone();
+        int changed = 0;
+
+        for (int row = 0; row < columns.size; row++) {
+            if (excluded.get(row) != exclude && Arrays.binarySearch(sorted, columns.order[row]) >= 0) {
+                excluded.set(row, exclude);
+                changed++;
+            }
+        }
+
+        if (changed > 0) {
+            columns.excluded = excluded;
+        }
+        return changed;
+    }
+
+    // Growable column arrays and dictionaries; only the refreshing thread writes here
+    private static final class Columns {
+        int size;
+        int[] day = new int[INITIAL_CAPACITY];
+        int[] product = new int[INITIAL_CAPACITY];
+        int[] category = new int[INITIAL_CAPACITY];
+        int[] brand = new int[INITIAL_CAPACITY];
+        int[] quantity = new int[INITIAL_CAPACITY];
+        long[] amount = new long[INITIAL_CAPACITY];
+        long[] order = new long[INITIAL_CAPACITY];
+        BitSet excluded = new BitSet();
+
+        // Ids of the orders with rows here (order ids fit in an int)
+        final BitSet orders = new BitSet();
+
+        // Order whose lines appendNew is currently reading, and whether they are being appended
+        long scanOrder = -1;
+        boolean scanAppends;
+
+        final Dictionary products = new Dictionary();
+        final Dictionary categories = new Dictionary();
+        final Map<String, Integer> brandCodes = new HashMap<>();
+        String[] brands = new String[64];
+
+        void append(OrderLineFact fact) {
+            if (size == day.length) {
+                int capacity = size * 2;
+                day = Arrays.copyOf(day, capacity);
+                product = Arrays.copyOf(product, capacity);
+                category = Arrays.copyOf(category, capacity);
+                brand = Arrays.copyOf(brand, capacity);
+                quantity = Arrays.copyOf(quantity, capacity);
+                amount = Arrays.copyOf(amount, capacity);
+                order = Arrays.copyOf(order, capacity);
+            }
+
+            day[size] = (int) fact.getCreatedAt().toLocalDate().toEpochDay();
+            product[size] = products.code(fact.getProductId(), fact.getProductName());
+            category[size] = categories.code(fact.getCategoryId(), fact.getCategoryName());
+            brand[size] = brandCode(fact.getBrand() != null && !fact.getBrand().isBlank()
+                    ? fact.getBrand() : UNKNOWN_BRAND);
+            quantity[size] = fact.getQuantity();
+            amount[size] = fact.getAmountCents();
+            order[size] = fact.getOrderId();
+            orders.set(Math.toIntExact(fact.getOrderId()));
+            size++;
+        }
+
+        // Append the lines of orders not loaded yet; ids of orders already loaded go to alreadyLoaded
+        void appendNew(OrderLineFact fact, List<Long> alreadyLoaded) {
+            if (fact.getOrderId() != scanOrder) {
+                scanOrder = fact.getOrderId();
+                scanAppends = !hasOrder(scanOrder);
+                if (!scanAppends) {
+                    alreadyLoaded.add(scanOrder);
+                }
+            }
+            if (scanAppends) {
+                append(fact);
+            }
+        }
+
+        boolean hasOrder(long orderId) {
+            return orderId <= Integer.MAX_VALUE && orders.get((int) orderId);
+        }
+
+        int brandCode(String name) {
+            Integer code = brandCodes.get(name);
+            if (code == null) {
+                code = brandCodes.size();
+                if (code == brands.length) {
+                    brands = Arrays.copyOf(brands, code * 2);
+                }
+                brands[code] = name;
+                brandCodes.put(name, code);
+            }
+            return code;
+        }
+
+        Snapshot publish() {
+            return new Snapshot(size, day, product, category, brand, quantity, amount, order, excluded,
+                    products.ids, products.labels, products.size,
+                    categories.ids, categories.labels, categories.size,
+                    brands, brandCodes.size());
+        }
+    }
+
+    // Dense codes for entity ids, with the label seen first
+    private static final class Dictionary {
+        final Map<Long, Integer> codes = new HashMap<>();
+        long[] ids = new long[1024];
+        String[] labels = new String[1024];
+        int size;
+
+        int code(long id, String label) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = size++;
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, code * 2);
+                    labels = Arrays.copyOf(labels, code * 2);
+                }
+                ids[code] = id;
+                labels[code] = label;
+                codes.put(id, code);
+            }
+            return code;
+        }
+    }
+
+    // Immutable read view; never reads past its own row and dictionary counts
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Columns().publish();
+
+        final int size;
+        final int[] day;
+        final int[] product;
+        final int[] category;
+        final int[] brand;
+        final int[] quantity;
+        final long[] amount;
+        final long[] order;
+        final BitSet excluded;
+        final long[] productIds;
+        final String[] productNames;
+        final int productCount;
+        final long[] categoryIds;
+        final String[] categoryNames;
+        final int categoryCount;
+        final String[] brands;
+        final int brandCount;
+
+        Snapshot(int size, int[] day, int[] product, int[] category, int[] brand, int[] quantity,
+                 long[] amount, long[] order, BitSet excluded,
+                 long[] productIds, String[] productNames, int productCount,
+                 long[] categoryIds, String[] categoryNames, int categoryCount,
+                 String[] brands, int brandCount) {
+            this.size = size;
+            this.day = day;
+            this.product = product;
+            this.category = category;
+            this.brand = brand;
+            this.quantity = quantity;
+            this.amount = amount;
+            this.order = order;
+            this.excluded = excluded;
+            this.productIds = productIds;
+            this.productNames = productNames;
+            this.productCount = productCount;
+            this.categoryIds = categoryIds;
+            this.categoryNames = categoryNames;
+            this.categoryCount = categoryCount;
+            this.brands = brands;
+            this.brandCount = brandCount;
+        }
+
+        int categoryCode(long categoryId) {
+            for (int code = 0; code < categoryCount; code++) {
+                if (categoryIds[code] == categoryId) {
+                    return code;
+                }
+            }
+            return -1;
+        }
+
+        int keyCount(GroupBy groupBy) {
+            switch (groupBy) {
+                case PRODUCT:
+                    return productCount;
+                case CATEGORY:
+                    return categoryCount;
+                default:
+                    return brandCount;
+            }
+        }
+
+        // Chunk boundaries of roughly chunkRows rows, moved forward so no order spans two chunks
+        int[] chunkBounds(int chunkRows) {
+            List<Integer> bounds = new ArrayList<>();
+            bounds.add(0);
+            int next = chunkRows;
+            while (next < size) {
+                while (next < size && order[next] == order[next - 1]) {
+                    next++;
+                }
+                if (next < size) {
+                    bounds.add(next);
+                }
+                next += chunkRows;
+            }
+            bounds.add(size);
+            return bounds.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        Accumulator scan(GroupBy groupBy, int start, int end, int fromDay, int toDay, int categoryCode, int keyCount) {
+            Accumulator acc = new Accumulator(keyCount);
+            int[] keys = groupBy == GroupBy.PRODUCT ? product
+                    : groupBy == GroupBy.CATEGORY ? category
+                    : groupBy == GroupBy.BRAND ? brand
+                    : day;
+            int keyOffset = groupBy == GroupBy.DAY ? fromDay : 0;
+
+            for (int row = start; row < end; row++) {
+                int rowDay = day[row];
+                if (rowDay < fromDay || rowDay > toDay || excluded.get(row)
+                        || (categoryCode >= 0 && category[row] != categoryCode)) {
+                    continue;
+                }
+
+                int key = keys[row] - keyOffset;
+                acc.lines[key]++;
+                acc.units[key] += quantity[row];
+                acc.cents[key] += amount[row];
+
+                // Lines of one order are contiguous, so a new order id means a new order for this key
+                if (acc.lastOrder[key] != order[row]) {
+                    acc.lastOrder[key] = order[row];
+                    acc.orders[key]++;
+                }
+            }
+            return acc;
+        }
+
+        String key(GroupBy groupBy, int key, int fromDay) {
+            switch (groupBy) {
+                case PRODUCT:
+                    return String.valueOf(productIds[key]);
+                case CATEGORY:
+                    return String.valueOf(categoryIds[key]);
+                case BRAND:
+                    return brands[key];
+                default:
+                    return LocalDate.ofEpochDay(fromDay + key).toString();
+            }
+        }
+
+        String label(GroupBy groupBy, int key, int fromDay) {
+            switch (groupBy) {
+                case PRODUCT:
+                    return productNames[key];
+                case CATEGORY:
+                    return categoryNames[key];
+                default:
+                    return key(groupBy, key, fromDay);
+            }
+        }
+    }
+
+    // Per-chunk partial sums indexed by dense key
+    private static final class Accumulator {
+        final long[] lines;
+        final long[] units;
+        final long[] cents;
+        final long[] orders;
+        final long[] lastOrder;
+
+        Accumulator(int keyCount) {
+            lines = new long[keyCount];
+            units = new long[keyCount];
+            cents = new long[keyCount];
+            orders = new long[keyCount];
+            lastOrder = new long[keyCount];
+        }
+
+        // Chunks never split an order, so order counts simply add up
+        Accumulator merge(Accumulator other) {
+            for (int key = 0; key < lines.length; key++) {
+                lines[key] += other.lines[key];
+                units[key] += other.units[key];
+                cents[key] += other.cents[key];
+                orders[key] += other.orders[key];
+            }
+            return this;
+        }
+    }
+
+    // Inner class for report rows
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class Group {
+        private String key;
+        private String label;
+        private Long orders;
+        private Long units;
+        private BigDecimal revenue;
+        private BigDecimal averageOrderValue;
+    }
+
+    // Inner class for store metrics
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class StoreStats {
+        private Boolean loaded;
+        private Long rows;
+        private Long excludedRows;
+        private Integer products;
+        private Integer categories;
+        private Integer brands;
+        private Long lastRefreshDurationMs;
+        private LocalDateTime lastRefreshAt;
+        private Long lastFullLoadDurationMs;
+        private LocalDateTime lastFullLoadAt;
+    }
+}
@@ -0,0 +1,284 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.SalesBreakdown;
+import com.ecommerce.dto.SalesPoint;
+import com.ecommerce.model.Category;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.SalesRollup;
+import com.ecommerce.model.SalesRollupEvent;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.SalesRollupBatchRepository.RollupDelta;
+import com.ecommerce.repository.SalesRollupEventRepository;
+import com.ecommerce.repository.SalesRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly and daily sales rollups per product, category and payment method.
+ *
+ * Sales are paid orders, as in the old PAID-only total-sales query: an order is added when its
+ * payment is confirmed and subtracted when it is refunded or cancelled after payment, as the
+ * outbox events arrive. Each change is recorded in sales_rollup_events (keyed per order) in the
+ * same transaction, so redelivery is a no-op. Orders are bucketed by their creation time.
+ * Past days can be rebuilt from order history (live and archived) in parallel, one day per
+ * task and transaction. Admin analytics read only the rollups, never the order tables.
+ */
+@Service
+public class SalesRollupService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    
+    private static final String UNKNOWN_PAYMENT_METHOD = "UNKNOWN";
+    
+    @Value("${app.analytics.rebuild-threads:4}")
+    private int rebuildThreads;
+    
+    @Value("${app.analytics.max-hourly-days:31}")
+    private long maxHourlyDays;
+    
+    @Value("${app.analytics.max-range-days:1100}")
+    private long maxRangeDays;
+    
+    @Value("${app.analytics.event-retention-days:30}")
+    private long eventRetentionDays;
+    
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+    
+    @Autowired
+    private SalesRollupEventRepository salesRollupEventRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sales-rollup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    // Add (sign 1) or subtract (sign -1) one order from its buckets, once per event key
+    public void applyOrder(String eventKey, Long orderId, int sign) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (salesRollupEventRepository.existsById(eventKey)) {
+                return;
+            }
+            
+            Optional<Order> found = orderRepository.findById(orderId);
+            if (found.isPresent()) {
+                salesRollupRepository.applyDeltas(buildDeltas(found.get(), sign));
+            } else {
+                log.warn("Order {} not found, skipping sales rollup event {}", orderId, eventKey);
+            }
+            
+            // A concurrent duplicate fails on the primary key and rolls back its deltas
+            salesRollupEventRepository.saveAndFlush(new SalesRollupEvent(eventKey, LocalDateTime.now()));
+        });
+    }
+    
+    // Recompute the rollups of each day in [from, to] from order history; returns the number of days rebuilt.
+    // Only complete days (before today) can be rebuilt, since today's buckets are still receiving events.
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (!to.isBefore(today)) {
+            throw new IllegalArgumentException("Only days before today can be rebuilt");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Rebuild range is limited to " + maxRangeDays + " days");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rollup rebuild is already running");
+        }
+        
+        long start = System.currentTimeMillis();
+        
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                LocalDateTime dayStart = day.atStartOfDay();
+                futures.add(executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        status -> salesRollupRepository.rebuildRange(dayStart, dayStart.plusDays(1)))));
+            }
+            
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Rollup rebuild interrupted");
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            
+            log.info("Rebuilt sales rollups for {} days ({} to {}) in {} ms",
+                    futures.size(), from, to, System.currentTimeMillis() - start);
+            return futures.size();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+    
+    // Order count, units and revenue per hour or day for [from, to]
+    public List<SalesPoint> getSalesSeries(SalesRollup.Granularity granularity, LocalDate from, LocalDate to) {
+        long maxDays = granularity == SalesRollup.Granularity.HOUR ? maxHourlyDays : maxRangeDays;
+        checkRange(from, to, maxDays);
+        
+        return salesRollupRepository.findSeries(granularity, SalesRollup.Dimension.PAYMENT_METHOD,
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+    
+    // Totals per product, category or payment method for [from, to], highest revenue first
+    public List<SalesBreakdown> getBreakdown(SalesRollup.Dimension dimension, LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to, maxRangeDays);
+        
+        List<SalesBreakdown> rows = salesRollupRepository.findBreakdown(SalesRollup.Granularity.DAY, dimension,
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay(), PageRequest.of(0, limit));
+        
+        applyLabels(dimension, rows);
+        return rows;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.event-cleanup-interval-ms:3600000}")
+    public void purgeAppliedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(eventRetentionDays);
+        Integer deleted = transactionTemplate.execute(status -> salesRollupEventRepository.deleteAppliedBefore(cutoff));
+        
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} applied sales rollup events", deleted);
+        }
+    }
+    
+    private List<RollupDelta> buildDeltas(Order order, int sign) {
+        LocalDateTime hour = order.getCreatedAt().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = order.getCreatedAt().toLocalDate().atStartOfDay();
+        
+        // Aggregate the order's lines per product and per category first
+        Map<String, long[]> productUnits = new LinkedHashMap<>();
+        Map<String, BigDecimal> productRevenue = new HashMap<>();
+        Map<String, long[]> categoryUnits = new LinkedHashMap<>();
+        Map<String, BigDecimal> categoryRevenue = new HashMap<>();
+        long totalUnits = 0;
+        
+        for (Object[] line : orderItemRepository.findRollupLinesByOrderId(order.getId())) {
+            String productKey = String.valueOf(line[0]);
+            String categoryKey = String.valueOf(line[1]);
+            long quantity = ((Number) line[2]).longValue();
+            BigDecimal subtotal = (BigDecimal) line[3];
+            
+            productUnits.computeIfAbsent(productKey, key -> new long[1])[0] += quantity;
+            productRevenue.merge(productKey, subtotal, BigDecimal::add);
+            categoryUnits.computeIfAbsent(categoryKey, key -> new long[1])[0] += quantity;
+            categoryRevenue.merge(categoryKey, subtotal, BigDecimal::add);
+            totalUnits += quantity;
+        }
+        
+        String paymentKey = order.getPaymentMethod() != null
+                ? order.getPaymentMethod().name() : UNKNOWN_PAYMENT_METHOD;
+        
+        List<RollupDelta> deltas = new ArrayList<>();
+        for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+            LocalDateTime bucket = granularity == SalesRollup.Granularity.HOUR ? hour : day;
+            
+            productUnits.forEach((key, units) -> deltas.add(delta(granularity, SalesRollup.Dimension.PRODUCT,
+                    key, bucket, sign, units[0], productRevenue.get(key))));
+            categoryUnits.forEach((key, units) -> deltas.add(delta(granularity, SalesRollup.Dimension.CATEGORY,
+                    key, bucket, sign, units[0], categoryRevenue.get(key))));
+            deltas.add(delta(granularity, SalesRollup.Dimension.PAYMENT_METHOD,
+                    paymentKey, bucket, sign, totalUnits, order.getTotalAmount()));
+        }
+        return deltas;
+    }
+    
+    private static RollupDelta delta(SalesRollup.Granularity granularity, SalesRollup.Dimension dimension,
+                                     String key, LocalDateTime bucket, int sign, long units, BigDecimal revenue) {
+        BigDecimal signedRevenue = sign < 0 ? revenue.negate() : revenue;
+        return new RollupDelta(granularity, dimension, key, bucket, sign, sign * units, signedRevenue);
+    }
+    
+    private void checkRange(LocalDate from, LocalDate to, long maxDays) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxDays + " days");
+        }
+    }
+    
+    // Resolve product / category names with one lookup per request
+    private void applyLabels(SalesRollup.Dimension dimension, List<SalesBreakdown> rows) {
+        if (dimension == SalesRollup.Dimension.PAYMENT_METHOD) {
+            rows.forEach(row -> row.setLabel(row.getKey()));
+            return;
+        }
+        
+        List<Long> ids = rows.stream().map(row -> Long.valueOf(row.getKey())).collect(Collectors.toList());
+        Map<String, String> names = dimension == SalesRollup.Dimension.PRODUCT
+                ? productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(product -> String.valueOf(product.getId()), Product::getName))
+                : categoryRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(category -> String.valueOf(category.getId()), Category::getName));
+        
+        rows.forEach(row -> row.setLabel(names.get(row.getKey())));
+    }
+}
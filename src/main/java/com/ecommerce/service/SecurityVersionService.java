@@ -0,0 +1,157 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.RevokedUser;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.RevokedUserRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user security versions that let access tokens be checked without a database lookup.
+ *
+ * Access tokens carry the user's security version. Password changes, locks and "log out
+ * everywhere" bump it, which invalidates every token issued before. Only recent bumps matter:
+ * a token older than the access token lifetime has expired anyway, so this node keeps just the
+ * versions bumped within that window, loaded at startup and refreshed by a periodic poll of
+ * users.security_version_changed_at (changes made on other nodes take effect within one poll).
+ * Deleted accounts leave a revoked_users tombstone for the same window, which the poll reads too.
+ */
+@Service
+public class SecurityVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityVersionService.class);
+
+    // Covers clock differences between nodes and commits that land after a poll started
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedUserRepository revokedUserRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // userId -> lowest version still accepted, for users bumped within the token lifetime
+    private final Map<Long, Entry> minimumVersions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastPoll;
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        record(now.minusNanos(jwtUtil.getJwtExpiration() * 1_000_000L));
+        lastPoll = now;
+    }
+
+    // False if the token's version was superseded by a later bump
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Entry entry = minimumVersions.get(userId);
+        return entry == null || tokenVersion >= entry.version;
+    }
+
+    // Invalidate the user's existing access tokens; the caller saves the user in its transaction
+    public void bump(User user) {
+        int version = (user.getSecurityVersion() != null ? user.getSecurityVersion() : 0) + 1;
+        LocalDateTime now = LocalDateTime.now();
+
+        user.setSecurityVersion(version);
+        user.setSecurityVersionChangedAt(now);
+
+        afterCommit(() -> remember(user.getId(), version, now));
+    }
+
+    // Reject every token of a user that is being deleted; the tombstone commits with the delete
+    public void revoke(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        revokedUserRepository.save(new RevokedUser(userId, now));
+
+        afterCommit(() -> remember(userId, Integer.MAX_VALUE, now));
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.security-version.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            record(lastPoll.minusSeconds(POLL_OVERLAP_SECONDS));
+        } catch (RuntimeException e) {
+            // Keep the versions we have; the next poll covers this window again
+            log.warn("Polling security versions failed: {}", e.getMessage());
+            return;
+        }
+        lastPoll = now;
+
+        // Tokens issued before an older bump have expired by now
+        long cutoff = toMillis(now) - jwtUtil.getJwtExpiration();
+        minimumVersions.values().removeIf(entry -> entry.changedAtMillis < cutoff);
+    }
+
+    // Tombstones older than the token lifetime no longer reject anything
+    @Scheduled(fixedDelayString = "${app.auth.security-version.cleanup-interval-ms:3600000}")
+    public void purgeRevoked() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(jwtUtil.getJwtExpiration() * 1_000_000L);
+        Integer deleted = transactionTemplate.execute(status -> revokedUserRepository.deleteRevokedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} revoked-user tombstones", deleted);
+        }
+    }
+
+    private void record(LocalDateTime since) {
+        for (Object[] row : userRepository.findSecurityVersionsChangedSince(since)) {
+            remember((Long) row[0], row[1] != null ? (Integer) row[1] : 0, (LocalDateTime) row[2]);
+        }
+        for (RevokedUser revoked : revokedUserRepository.findByRevokedAtAfter(since)) {
+            remember(revoked.getUserId(), Integer.MAX_VALUE, revoked.getRevokedAt());
+        }
+    }
+
+    private void remember(Long userId, int version, LocalDateTime changedAt) {
+        Entry entry = new Entry(version, toMillis(changedAt));
+        minimumVersions.merge(userId, entry, (current, added) -> added.version > current.version ? added : current);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Entry {
+        final int version;
+        final long changedAtMillis;
+
+        Entry(int version, long changedAtMillis) {
+            this.version = version;
+            this.changedAtMillis = changedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.UserOrderStats;
+import com.ecommerce.repository.ArchivedOrderRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.UserOrderStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the user_order_stats read model.
+ *
+ * Order and payment writes call orderCreated/orderChanged inside their own transaction, which
+ * applies the status and spend deltas with a single UPDATE. A user without a stats row yet is
+ * rebuilt from the orders and archived_orders tables instead, so lazily created rows are complete.
+ * Only the transaction that creates the row (INSERT IGNORE) rebuilds it; a concurrent first writer
+ * waits on that row and then applies its own delta, so no snapshot overwrites another's order.
+ * backfillAll() and verifyAll() walk users with orders by id in chunks.
+ */
+@Service
+public class UserOrderStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserOrderStatsService.class);
+    
+    @Value("${app.order-stats.chunk-size:500}")
+    private int chunkSize;
+    
+    @Autowired
+    private UserOrderStatsRepository userOrderStatsRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // ==================== WRITE HOOKS ====================
+    
+    // Count a newly placed order (must run inside the order transaction, after the order is saved)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        Delta delta = new Delta();
+        delta.total = 1;
+        delta.add(order.getStatus(), 1);
+        if (order.getPaymentStatus() == Order.PaymentStatus.PAID) {
+            delta.spent = order.getTotalAmount();
+        }
+        apply(order.getUser().getId(), delta, order.getCreatedAt());
+    }
+    
+    // Move an order between status buckets (must run inside the transaction that changed it)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderChanged(Order order, Order.OrderStatus previousStatus, Order.PaymentStatus previousPaymentStatus) {
+        Delta delta = new Delta();
+        
+        if (previousStatus != order.getStatus()) {
+            delta.add(previousStatus, -1);
+            delta.add(order.getStatus(), 1);
+        }
+        
+        boolean wasPaid = previousPaymentStatus == Order.PaymentStatus.PAID;
+        boolean isPaid = order.getPaymentStatus() == Order.PaymentStatus.PAID;
+        if (wasPaid != isPaid) {
+            delta.spent = isPaid ? order.getTotalAmount() : order.getTotalAmount().negate();
+        }
+        
+        if (delta.isEmpty()) {
+            return;
+        }
+        apply(order.getUser().getId(), delta, null);
+    }
+    
+    // Apply many status moves at once, one UPDATE per affected user
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusesChanged(List<StatusChange> changes) {
+        Map<Long, Delta> byUser = new HashMap<>();
+        
+        for (StatusChange change : changes) {
+            Delta delta = byUser.computeIfAbsent(change.getUserId(), userId -> new Delta());
+            if (change.getFromStatus() != change.getToStatus()) {
+                delta.add(change.getFromStatus(), -1);
+                delta.add(change.getToStatus(), 1);
+            }
+            if (change.getSpentChange() != null) {
+                delta.spent = delta.spent.add(change.getSpentChange());
+            }
+        }
+        
+        byUser.forEach((userId, delta) -> {
+            if (!delta.isEmpty()) {
+                apply(userId, delta, null);
+            }
+        });
+    }
+    
+    // ==================== READS ====================
+    
+    // Stats row for a user, rebuilt from orders on first access
+    @Transactional
+    public UserOrderStats getStats(Long userId) {
+        return userOrderStatsRepository.findById(userId)
+                .orElseGet(() -> {
+                    if (userOrderStatsRepository.insertEmpty(userId) == 1) {
+                        return rebuildUser(userId);
+                    }
+                    // Created concurrently by an order write; report the aggregate without overwriting it
+                    UserOrderStats stats = computeFromOrders(List.of(userId)).get(userId);
+                    return stats != null ? stats : emptyStats(userId);
+                });
+    }
+    
+    // ==================== REBUILD / BACKFILL / VERIFY ====================
+    
+    // Recompute one user's row from the orders table
+    @Transactional
+    public UserOrderStats rebuildUser(Long userId) {
+        UserOrderStats stats = computeFromOrders(List.of(userId)).get(userId);
+        if (stats == null) {
+            stats = emptyStats(userId);
+        }
+        write(stats);
+        return stats;
+    }
+    
+    // Recompute every user that has orders, one chunk per transaction; returns users written
+    public long backfillAll() {
+        long start = System.currentTimeMillis();
+        long users = 0;
+        Long afterUserId = 0L;
+        
+        while (true) {
+            List<Long> userIds = orderRepository.findUserIdsWithOrdersAfter(afterUserId, chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            
+            transactionTemplate.executeWithoutResult(status ->
+                    computeFromOrders(userIds).values().forEach(this::write));
+            
+            users += userIds.size();
+            afterUserId = userIds.get(userIds.size() - 1);
+            
+            if (userIds.size() < chunkSize) {
+                break;
+            }
+        }
+        
+        log.info("Backfilled order stats for {} users in {} ms", users, System.currentTimeMillis() - start);
+        return users;
+    }
+    
+    // Compare every stored row with a fresh aggregate of the orders table (read-only)
+    public VerificationResult verifyAll(int maxMismatches) {
+        long checked = 0;
+        long mismatchCount = 0;
+        List<Mismatch> mismatches = new ArrayList<>();
+        Long afterUserId = 0L;
+        
+        while (true) {
+            List<Long> userIds = orderRepository.findUserIdsWithOrdersAfter(afterUserId, chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            
+            Map<Long, UserOrderStats> expected = computeFromOrders(userIds);
+            Map<Long, UserOrderStats> stored = new HashMap<>();
+            userOrderStatsRepository.findAllById(userIds).forEach(stats -> stored.put(stats.getUserId(), stats));
+            
+            for (Long userId : userIds) {
+                checked++;
+                String difference = describeDifference(expected.get(userId), stored.get(userId));
+                if (difference != null) {
+                    mismatchCount++;
+                    if (mismatches.size() < maxMismatches) {
+                        mismatches.add(new Mismatch(userId, difference));
+                    }
+                }
+            }
+            
+            afterUserId = userIds.get(userIds.size() - 1);
+            if (userIds.size() < chunkSize) {
+                break;
+            }
+        }
+        
+        return new VerificationResult(checked, mismatchCount, mismatches);
+    }
+    
+    // Apply a delta, rebuilding from orders when the user has no row yet
+    private void apply(Long userId, Delta delta, LocalDateTime lastOrderAt) {
+        if (addDeltas(userId, delta, lastOrderAt) > 0) {
+            return;
+        }
+        
+        if (userOrderStatsRepository.insertEmpty(userId) == 1) {
+            // This transaction owns the new row. The aggregate query flushes pending order
+            // changes, so it already includes this one
+            rebuildUser(userId);
+        } else {
+            // Another transaction created the row (and has committed, since the insert waited on it)
+            addDeltas(userId, delta, lastOrderAt);
+        }
+    }
+    
+    private int addDeltas(Long userId, Delta delta, LocalDateTime lastOrderAt) {
+        return userOrderStatsRepository.addDeltas(userId,
+                delta.total,
+                delta.get(Order.OrderStatus.PENDING),
+                delta.get(Order.OrderStatus.CONFIRMED),
+                delta.get(Order.OrderStatus.PROCESSING),
+                delta.get(Order.OrderStatus.SHIPPED),
+                delta.get(Order.OrderStatus.DELIVERED),
+                delta.get(Order.OrderStatus.CANCELLED),
+                delta.get(Order.OrderStatus.REFUNDED),
+                delta.spent,
+                lastOrderAt);
+    }
+    
+    // Aggregate live and archived orders of the given users
+    private Map<Long, UserOrderStats> computeFromOrders(Collection<Long> userIds) {
+        Map<Long, UserOrderStats> result = new HashMap<>();
+        
+        List<Object[]> counts = new ArrayList<>(orderRepository.countByStatusForUsers(userIds));
+        counts.addAll(archivedOrderRepository.countByStatusForUsers(userIds));
+        
+        for (Object[] row : counts) {
+            Long userId = (Long) row[0];
+            Order.OrderStatus status = (Order.OrderStatus) row[1];
+            long count = (Long) row[2];
+            LocalDateTime latest = (LocalDateTime) row[3];
+            
+            UserOrderStats stats = result.computeIfAbsent(userId, this::emptyStats);
+            stats.setTotalOrders(stats.getTotalOrders() + count);
+            addCount(stats, status, count);
+            if (latest != null && (stats.getLastOrderAt() == null || latest.isAfter(stats.getLastOrderAt()))) {
+                stats.setLastOrderAt(latest);
+            }
+        }
+        
+        List<Object[]> sums = new ArrayList<>(orderRepository.sumPaidForUsers(userIds));
+        sums.addAll(archivedOrderRepository.sumPaidForUsers(userIds));
+        
+        for (Object[] row : sums) {
+            UserOrderStats stats = result.get((Long) row[0]);
+            if (stats != null && row[1] != null) {
+                stats.setTotalSpent(stats.getTotalSpent().add((BigDecimal) row[1]));
+            }
+        }
+        
+        return result;
+    }
+    
+    private void write(UserOrderStats stats) {
+        userOrderStatsRepository.upsert(stats.getUserId(),
+                stats.getTotalOrders(),
+                stats.getPendingOrders(),
+                stats.getConfirmedOrders(),
+                stats.getProcessingOrders(),
+                stats.getShippedOrders(),
+                stats.getDeliveredOrders(),
+                stats.getCancelledOrders(),
+                stats.getRefundedOrders(),
+                stats.getTotalSpent(),
+                stats.getLastOrderAt());
+    }
+    
+    private UserOrderStats emptyStats(Long userId) {
+        UserOrderStats stats = new UserOrderStats();
+        stats.setUserId(userId);
+        return stats;
+    }
+    
+    private static void addCount(UserOrderStats stats, Order.OrderStatus status, long count) {
+        switch (status) {
+            case PENDING: stats.setPendingOrders(stats.getPendingOrders() + count); break;
+            case CONFIRMED: stats.setConfirmedOrders(stats.getConfirmedOrders() + count); break;
+            case PROCESSING: stats.setProcessingOrders(stats.getProcessingOrders() + count); break;
+            case SHIPPED: stats.setShippedOrders(stats.getShippedOrders() + count); break;
+            case DELIVERED: stats.setDeliveredOrders(stats.getDeliveredOrders() + count); break;
+            case CANCELLED: stats.setCancelledOrders(stats.getCancelledOrders() + count); break;
+            case REFUNDED: stats.setRefundedOrders(stats.getRefundedOrders() + count); break;
+        }
+    }
+    
+    // Null when the stored row matches the expected aggregate
+    private static String describeDifference(UserOrderStats expected, UserOrderStats stored) {
+        if (stored == null) {
+            return "missing row";
+        }
+        if (expected == null) {
+            return stored.getTotalOrders() == 0 ? null : "row has orders but user has none";
+        }
+        
+        List<String> differences = new ArrayList<>();
+        if (!expected.getTotalOrders().equals(stored.getTotalOrders())) {
+            differences.add("totalOrders " + stored.getTotalOrders() + " != " + expected.getTotalOrders());
+        }
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            if (expected.getCount(status) != stored.getCount(status)) {
+                differences.add(status + " " + stored.getCount(status) + " != " + expected.getCount(status));
+            }
+        }
+        if (expected.getTotalSpent().compareTo(stored.getTotalSpent()) != 0) {
+            differences.add("totalSpent " + stored.getTotalSpent() + " != " + expected.getTotalSpent());
+        }
+        if (!Objects.equals(expected.getLastOrderAt(), stored.getLastOrderAt())) {
+            differences.add("lastOrderAt " + stored.getLastOrderAt() + " != " + expected.getLastOrderAt());
+        }
+        
+        return differences.isEmpty() ? null : String.join(", ", differences);
+    }
+    
+    // Pending change to one user's counters
+    private static class Delta {
+        private final Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        private long total;
+        private BigDecimal spent = BigDecimal.ZERO;
+        
+        void add(Order.OrderStatus status, long amount) {
+            byStatus.merge(status, amount, Long::sum);
+        }
+        
+        long get(Order.OrderStatus status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+        
+        boolean isEmpty() {
+            return total == 0 && spent.signum() == 0 && byStatus.values().stream().allMatch(v -> v == 0L);
+        }
+    }
+    
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class StatusChange {
+        private Long userId;
+        private Order.OrderStatus fromStatus;
+        private Order.OrderStatus toStatus;
+        // Change to total spent when the payment status moves to or from PAID, otherwise null
+        private BigDecimal spentChange;
+        
+        public StatusChange(Long userId, Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+            this(userId, fromStatus, toStatus, null);
+        }
+    }
+    
+    // Inner class for verification output
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class VerificationResult {
+        private Long usersChecked;
+        private Long mismatchCount;
+        private List<Mismatch> mismatches;
+    }
+    
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class Mismatch {
+        private Long userId;
+        private String difference;
+    }
+}
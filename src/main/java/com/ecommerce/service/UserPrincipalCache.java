@@ -0,0 +1,99 @@
+package com.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived cache of authenticated principals by email, so authenticated requests skip the
+ * user query.
+ *
+ * Entries are LRU-bounded and expire after a short TTL. Changes that affect authentication
+ * (password change or reset, lock, role change, deletion) evict the user both immediately and
+ * again after commit, so a request racing the change cannot re-cache the old state; the TTL
+ * bounds staleness from changes made on other nodes.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    @Value("${app.auth.principal-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.auth.principal-cache.max-users:50000}")
+    private int maxUsers;
+    
+    @Value("${app.auth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    // Access-ordered, bounded
+    private final Map<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+    
+    // Cached principal, or null on a miss
+    public AuthenticatedUser get(String email) {
+        if (!enabled) {
+            return null;
+        }
+        
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= entry.expiresAt) {
+                entries.remove(email);
+                return null;
+            }
+            return entry.principal;
+        }
+    }
+    
+    public void put(AuthenticatedUser principal) {
+        if (!enabled) {
+            return;
+        }
+        
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000L;
+        synchronized (entries) {
+            entries.put(principal.getUsername(), new Entry(principal, expiresAt));
+        }
+    }
+    
+    // Drop a user now and, inside a transaction, once more after it commits
+    public void evict(String email) {
+        remove(email);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(email);
+                }
+            });
+        }
+    }
+    
+    private void remove(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+    
+    private static class Entry {
+        final AuthenticatedUser principal;
+        final long expiresAt;
+        
+        Entry(AuthenticatedUser principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
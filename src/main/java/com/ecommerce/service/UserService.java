@@ -4,6 +4,7 @@ import com.ecommerce.dto.*;
 import com.ecommerce.exception.*;
 import com.ecommerce.model.Address;
 import com.ecommerce.model.User;
+import com.ecommerce.model.UserOrderStats;
 import com.ecommerce.repository.AddressRepository;
 import com.ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +12,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +28,15 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserOrderStatsService userOrderStatsService;
+    
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    @Autowired
+    private SecurityVersionService securityVersionService;
+    
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
@@ -44,6 +53,8 @@ public class UserService {
             }
             user.setEmail(request.getEmail());
             user.setEmailVerified(false); // Require re-verification
+            securityVersionService.bump(user); // tokens name the old email
+            userPrincipalCache.evict(email);
         }
         
         if (request.getName() != null) {
@@ -72,18 +83,22 @@ public class UserService {
         
         // Update to new password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        securityVersionService.bump(user);
         userRepository.save(user);
+        userPrincipalCache.evict(user.getEmail());
     }
     
     public DashboardResponse getDashboard(String email) {
         User user = getUserByEmail(email);
         
-        // Build user stats (you'll populate these from actual orders later)
+        // Order figures come from the user_order_stats read model (one row)
+        UserOrderStats orderStats = userOrderStatsService.getStats(user.getId());
+        
         DashboardResponse.UserStats stats = new DashboardResponse.UserStats();
-        stats.setTotalOrders(0); // TODO: Get from OrderRepository
-        stats.setTotalSpent(BigDecimal.ZERO); // TODO: Calculate from orders
-        stats.setPendingOrders(0); // TODO: Get from OrderRepository
-        stats.setCompletedOrders(0); // TODO: Get from OrderRepository
+        stats.setTotalOrders(Math.toIntExact(orderStats.getTotalOrders()));
+        stats.setTotalSpent(orderStats.getTotalSpent());
+        stats.setPendingOrders(Math.toIntExact(orderStats.getOpenOrders()));
+        stats.setCompletedOrders(Math.toIntExact(orderStats.getDeliveredOrders()));
         stats.setSavedItems(0); // TODO: Get from WishlistRepository
         stats.setCartItems(0); // TODO: Get from CartRepository
         stats.setMemberSince(user.getCreatedAt());
@@ -196,5 +211,7 @@ public class UserService {
         
         // Delete user
         userRepository.delete(user);
+        securityVersionService.revoke(user.getId());
+        userPrincipalCache.evict(user.getEmail());
     }
 }
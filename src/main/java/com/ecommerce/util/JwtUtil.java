@@ -1,9 +1,13 @@
 package com.ecommerce.util;
 
+import com.ecommerce.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -11,12 +15,26 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and the (thread-safe) parser are built once at startup. verify() parses a token
+ * exactly once into an immutable VerifiedToken; recently verified tokens are kept in a small
+ * LRU map until they expire, so repeat requests with the same token skip the HMAC check and the
+ * JSON parse (app.jwt.verified-cache-size=0 turns this off).
+ */
 @Component
 public class JwtUtil {
 
+    // Identity claims of access tokens (subject is the email)
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SECURITY_VERSION = "sv";
+
     @Value("${app.jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secretKey;
 
@@ -26,6 +44,27 @@ public class JwtUtil {
     @Value("${app.jwt.refresh-expiration:604800000}")
     private long refreshExpiration;
 
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // Access-ordered, bounded; only tokens that passed verification are stored
+    private final Map<String, VerifiedToken> verifiedTokens = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > verifiedCacheSize;
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     // ==================== TOKEN GENERATION ====================
 
     public String generateToken(UserDetails userDetails) {
@@ -40,6 +79,15 @@ public class JwtUtil {
         return buildToken(new HashMap<>(), email, jwtExpiration);
     }
 
+    // Access token that identifies the user without a database lookup
+    public String generateAccessToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_SECURITY_VERSION, user.getSecurityVersion() != null ? user.getSecurityVersion() : 0);
+        return buildToken(claims, user.getEmail(), jwtExpiration);
+    }
+
     public String generateRefreshToken(UserDetails userDetails) {
         return buildToken(new HashMap<>(), userDetails.getUsername(), refreshExpiration);
     }
@@ -54,20 +102,56 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     // ==================== TOKEN VALIDATION ====================
 
-    // Used by JwtAuthenticationFilter
-    public boolean validateToken(String token) {
+    // Signature- and expiry-checked claims of the token, or null if it is invalid or expired
+    // (used by JwtAuthenticationFilter; parses at most once per distinct token)
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+
+        if (verifiedCacheSize > 0) {
+            synchronized (verifiedTokens) {
+                VerifiedToken cached = verifiedTokens.get(token);
+                if (cached != null) {
+                    if (!cached.isExpired(now)) {
+                        return cached;
+                    }
+                    verifiedTokens.remove(token);
+                }
+            }
+        }
+
+        Claims claims;
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            claims = extractAllClaims(token); // rejects bad signatures and expired tokens
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L,
+                claims.getExpiration().getTime(),
+                claims);
+
+        if (verifiedCacheSize > 0) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, verified);
+            }
         }
+        return verified;
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
@@ -105,16 +189,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public long getJwtExpiration() {
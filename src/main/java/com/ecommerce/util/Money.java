@@ -0,0 +1,41 @@
+package com.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Helpers for monetary amounts held as a long count of minor units (cents).
+ * All price columns are DECIMAL(10,2), so conversion to and from BigDecimal is exact.
+ * Hot loops work on the primitives and convert back to BigDecimal only at the DTO/entity boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long times(long minorUnits, int quantity) {
+        return Math.multiplyExact(minorUnits, (long) quantity);
+    }
+
+    // Whole percent that discounted is below regular, rounded half-up (same as BigDecimal HALF_UP)
+    public static int percentOff(long regularMinor, long discountedMinor) {
+        if (regularMinor <= 0L || discountedMinor >= regularMinor) {
+            return 0;
+        }
+        long numerator = Math.multiplyExact(regularMinor - discountedMinor, 100L);
+        return (int) ((2L * numerator + regularMinor) / (2L * regularMinor));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, collision-free order number generator.
+ *
+ * Each number packs 41 bits of milliseconds since 2024-01-01, a 10-bit node id and a
+ * 12-bit per-millisecond sequence into a 63-bit value, rendered as 13 Crockford base32
+ * characters ("ORD-" prefix). Numbers are unique as long as every node has its own
+ * app.order-number.node-id, so no database existence check is needed. Fixed width keeps
+ * them sortable by creation time.
+ */
+@Component
+public class OrderNumberGenerator {
+
+    public static final String PREFIX = "ORD-";
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    // Packed (millis since epoch << SEQUENCE_BITS | sequence) of the last issued number
+    private final AtomicLong lastState = new AtomicLong();
+
+    public OrderNumberGenerator(@Value("${app.order-number.node-id:0}") int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.order-number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public String nextOrderNumber() {
+        long state = nextState();
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
+        long id = (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+        return PREFIX + encode(id);
+    }
+
+    // Claim the next (millis, sequence) pair. If the clock stalls, goes backwards, or the
+    // sequence for a millisecond runs out, continue from the last issued millisecond instead
+    // of waiting, so issued values only ever increase.
+    private long nextState() {
+        while (true) {
+            long previous = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long candidate = now << SEQUENCE_BITS;
+
+            long next = candidate > previous ? candidate : previous + 1;
+
+            if (lastState.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static String encode(long value) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
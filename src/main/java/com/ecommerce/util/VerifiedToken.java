@@ -0,0 +1,56 @@
+package com.ecommerce.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked.
+ * Immutable, so one instance can be shared by every request presenting the same token.
+ */
+public final class VerifiedToken {
+    
+    private final String subject;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+    private final Map<String, Object> claims;
+    
+    public VerifiedToken(String subject, long issuedAtMillis, long expiresAtMillis, Map<String, Object> claims) {
+        this.subject = subject;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.claims = Collections.unmodifiableMap(new HashMap<>(claims));
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+    
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+    
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+    
+    // Claim value converted to the requested type, or null if absent or of another type
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+    
+    // Numeric claim as a long (JSON numbers come back as Integer or Long), or null
+    public Long getLongClaim(String name) {
+        Object value = claims.get(name);
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+    
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+}
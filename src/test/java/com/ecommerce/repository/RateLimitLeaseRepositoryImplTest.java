@@ -0,0 +1,164 @@
+package com.ecommerce.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the lease SQL against an embedded H2 database, each call in its own transaction
+ * as DistributedRateLimiter does.
+ */
+class RateLimitLeaseRepositoryImplTest {
+
+    private static final String KEY = "a".repeat(64);
+    private static final long PERIOD = 60_000L;
+    private static final long WINDOW = 1_700_000_040_000L;
+    private static final LocalDateTime EXPIRES = LocalDateTime.of(2023, 11, 14, 22, 15);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private RateLimitLeaseRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE rate_limit_buckets (" +
+                "bucket_key VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                "window_start BIGINT NOT NULL, " +
+                "consumed BIGINT NOT NULL, " +
+                "expires_at TIMESTAMP NOT NULL)");
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        repository = new RateLimitLeaseRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void firstAcquireCreatesTheBucket() {
+        assertThat(acquire(WINDOW, 100, 10)).isEqualTo(10);
+
+        Map<String, Object> row = row();
+        assertThat(((Number) row.get("WINDOW_START")).longValue()).isEqualTo(WINDOW);
+        assertThat(((Number) row.get("CONSUMED")).longValue()).isEqualTo(10);
+    }
+
+    @Test
+    void leasesStopAtCapacity() {
+        assertThat(acquire(WINDOW, 25, 10)).isEqualTo(10);
+        assertThat(acquire(WINDOW, 25, 10)).isEqualTo(10);
+        assertThat(acquire(WINDOW, 25, 10)).isEqualTo(5);
+        assertThat(acquire(WINDOW, 25, 10)).isZero();
+
+        assertThat(((Number) row().get("CONSUMED")).longValue()).isEqualTo(25);
+    }
+
+    @Test
+    void leaseIsCappedByCapacityOnFirstInsert() {
+        assertThat(acquire(WINDOW, 3, 10)).isEqualTo(3);
+        assertThat(acquire(WINDOW, 3, 10)).isZero();
+    }
+
+    @Test
+    void newWindowResetsTheBucket() {
+        assertThat(acquire(WINDOW, 20, 10)).isEqualTo(10);
+        assertThat(acquire(WINDOW, 20, 10)).isEqualTo(10);
+        assertThat(acquire(WINDOW, 20, 10)).isZero();
+
+        LocalDateTime nextExpiry = EXPIRES.plusMinutes(1);
+        Integer granted = transactionTemplate.execute(status ->
+                repository.acquire(KEY, WINDOW + PERIOD, 20, 10, nextExpiry));
+        assertThat(granted).isEqualTo(10);
+
+        Map<String, Object> row = row();
+        assertThat(((Number) row.get("WINDOW_START")).longValue()).isEqualTo(WINDOW + PERIOD);
+        assertThat(((Number) row.get("CONSUMED")).longValue()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT expires_at FROM rate_limit_buckets WHERE bucket_key = ?",
+                LocalDateTime.class, KEY)).isEqualTo(nextExpiry);
+    }
+
+    @Test
+    void nodeBehindOnTheClockCountsIntoTheNewerWindow() {
+        assertThat(acquire(WINDOW + PERIOD, 20, 10)).isEqualTo(10);
+
+        assertThat(acquire(WINDOW, 20, 10)).isEqualTo(10);
+        assertThat(acquire(WINDOW, 20, 10)).isZero();
+
+        Map<String, Object> row = row();
+        assertThat(((Number) row.get("WINDOW_START")).longValue()).isEqualTo(WINDOW + PERIOD);
+        assertThat(((Number) row.get("CONSUMED")).longValue()).isEqualTo(20);
+    }
+
+    @Test
+    void concurrentFirstAcquireCreatesOneBucketAndNeverOvergrants() throws Exception {
+        int threads = 8;
+        int capacity = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    // Same retry as DistributedRateLimiter: a lost insert race means the row exists now
+                    try {
+                        return acquire(WINDOW, capacity, 10);
+                    } catch (DuplicateKeyException e) {
+                        return acquire(WINDOW, capacity, 10);
+                    }
+                }));
+            }
+            startGate.countDown();
+
+            int granted = 0;
+            for (Future<Integer> future : futures) {
+                granted += future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(granted).isEqualTo(capacity);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Integer.class))
+                    .isEqualTo(1);
+            assertThat(((Number) row().get("CONSUMED")).longValue()).isEqualTo(capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int acquire(long windowStart, int capacity, int requested) {
+        return transactionTemplate.execute(status ->
+                repository.acquire(KEY, windowStart, capacity, requested, EXPIRES));
+    }
+
+    private Map<String, Object> row() {
+        return jdbcTemplate.queryForMap("SELECT window_start, consumed FROM rate_limit_buckets WHERE bucket_key = ?", KEY);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests: on random carts the long-based calculator must produce exactly what the
+ * BigDecimal arithmetic it replaced produced (reproduced below as the reference).
+ */
+class CartPricingCalculatorTest {
+
+    private static final int RUNS = 5_000;
+
+    private final CartPricingCalculator calculator = new CartPricingCalculator();
+
+    @Test
+    void cartTotalsMatchBigDecimalPath() {
+        Random random = new Random(20240101L);
+
+        for (int run = 0; run < RUNS; run++) {
+            List<CartItem> cart = randomCart(random);
+            CartPricingCalculator.CartPricing pricing = calculator.price(cart);
+
+            BigDecimal subtotal = BigDecimal.ZERO;
+            BigDecimal discount = BigDecimal.ZERO;
+            int totalQuantity = 0;
+            boolean hasUnavailableItems = false;
+
+            for (int i = 0; i < cart.size(); i++) {
+                CartItem item = cart.get(i);
+                Product product = item.getProduct();
+                BigDecimal quantity = BigDecimal.valueOf(item.getQuantity());
+
+                BigDecimal lineSubtotal = item.getSubtotal();
+                assertThat(pricing.getLineSubtotal(i)).isEqualByComparingTo(lineSubtotal);
+                subtotal = subtotal.add(lineSubtotal);
+                totalQuantity += item.getQuantity();
+
+                if (product.hasDiscount()) {
+                    BigDecimal lineDiscount = product.getPrice().multiply(quantity).subtract(lineSubtotal);
+                    assertThat(pricing.getLineDiscount(i)).isEqualByComparingTo(lineDiscount);
+                    discount = discount.add(lineDiscount);
+
+                    BigDecimal markdown = product.getPrice().subtract(product.getDiscountPrice()).multiply(quantity);
+                    assertThat(pricing.hasLineMarkdown(i)).isTrue();
+                    assertThat(pricing.getLineMarkdown(i)).isEqualByComparingTo(markdown);
+                } else {
+                    assertThat(pricing.hasLineMarkdown(i)).isFalse();
+                }
+
+                hasUnavailableItems |= item.hasStockIssue();
+            }
+
+            assertThat(pricing.getLineCount()).isEqualTo(cart.size());
+            assertThat(pricing.getSubtotal()).isEqualByComparingTo(subtotal);
+            assertThat(pricing.getDiscount()).isEqualByComparingTo(discount);
+            assertThat(pricing.getTotalQuantity()).isEqualTo(totalQuantity);
+            assertThat(pricing.hasUnavailableItems()).isEqualTo(hasUnavailableItems);
+            assertThat(pricing.getSubtotal().scale()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void discountPercentageMatchesBigDecimalRounding() {
+        Random random = new Random(42L);
+
+        for (int run = 0; run < RUNS * 10; run++) {
+            Product product = randomProduct(random);
+            if (!product.hasDiscount()) {
+                assertThat(product.getDiscountPercentage()).isZero();
+                continue;
+            }
+
+            int expected = product.getPrice().subtract(product.getDiscountPrice())
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(product.getPrice(), 0, RoundingMode.HALF_UP)
+                    .intValue();
+            assertThat(product.getDiscountPercentage()).as("%s -> %s", product.getPrice(), product.getDiscountPrice())
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emptyCartIsZero() {
+        CartPricingCalculator.CartPricing pricing = calculator.price(List.of());
+
+        assertThat(pricing.getLineCount()).isZero();
+        assertThat(pricing.getSubtotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(pricing.getDiscount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(pricing.hasUnavailableItems()).isFalse();
+    }
+
+    private static List<CartItem> randomCart(Random random) {
+        int lines = random.nextInt(30);
+        List<CartItem> cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = randomProduct(random);
+
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(1 + random.nextInt(100));
+            // Usually the current selling price, sometimes a stale one from when the item was added
+            item.setPriceAtAddition(random.nextInt(4) == 0 ? randomAmount(random) : product.getEffectivePrice());
+            cart.add(item);
+        }
+        return cart;
+    }
+
+    private static Product randomProduct(Random random) {
+        Product product = new Product();
+        product.setPrice(randomAmount(random).max(new BigDecimal("0.01")));
+        switch (random.nextInt(4)) {
+            case 0 -> product.setDiscountPrice(null);
+            case 1 -> product.setDiscountPrice(product.getPrice());
+            default -> product.setDiscountPrice(randomAmount(random).min(product.getPrice()));
+        }
+        product.setStock(random.nextInt(50));
+        product.setActive(random.nextInt(10) != 0);
+        return product;
+    }
+
+    // DECIMAL(10,2) values, with a spread of magnitudes and of scales 0 to 2
+    private static BigDecimal randomAmount(Random random) {
+        long bound = switch (random.nextInt(3)) {
+            case 0 -> 1_000L;
+            case 1 -> 1_000_000L;
+            default -> 10_000_000_000L;
+        };
+        long cents = Math.floorMod(random.nextLong(), bound);
+        BigDecimal amount = BigDecimal.valueOf(cents, 2);
+        if (random.nextBoolean()) {
+            return amount;
+        }
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+}
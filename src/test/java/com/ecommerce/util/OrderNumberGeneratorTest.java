@@ -0,0 +1,108 @@
+package com.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 50_000;
+
+    @Test
+    void numbersAreFixedWidthAndIncreasing() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7);
+
+        String previous = generator.nextOrderNumber();
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.nextOrderNumber();
+            assertThat(next).startsWith(OrderNumberGenerator.PREFIX).hasSize(previous.length());
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameNumber() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(1);
+
+        List<String[]> issued = run(List.of(generator));
+
+        assertUnique(issued);
+        // A single generator hands each thread strictly increasing numbers
+        for (String[] numbers : issued) {
+            for (int i = 1; i < numbers.length; i++) {
+                assertThat(numbers[i]).isGreaterThan(numbers[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    void generatorsOnDifferentNodesNeverCollide() throws Exception {
+        List<OrderNumberGenerator> nodes = List.of(
+                new OrderNumberGenerator(0),
+                new OrderNumberGenerator(1),
+                new OrderNumberGenerator(512),
+                new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID));
+
+        assertUnique(run(nodes));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // THREADS threads, spread round-robin over the generators, each take PER_THREAD numbers at once;
+    // returns what each thread got, in the order it got them
+    private static List<String[]> run(List<OrderNumberGenerator> generators) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<String[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                OrderNumberGenerator generator = generators.get(t % generators.size());
+                futures.add(executor.submit(() -> {
+                    String[] numbers = new String[PER_THREAD];
+                    startGate.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        numbers[i] = generator.nextOrderNumber();
+                    }
+                    return numbers;
+                }));
+            }
+            startGate.countDown();
+
+            List<String[]> issued = new ArrayList<>();
+            for (Future<String[]> future : futures) {
+                issued.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return issued;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertUnique(List<String[]> issued) {
+        Set<String> seen = new HashSet<>();
+        for (String[] numbers : issued) {
+            for (String number : numbers) {
+                assertThat(seen.add(number)).as("duplicate %s", number).isTrue();
+            }
+        }
+        assertThat(seen).hasSize(THREADS * PER_THREAD);
+    }
+}